@@ -0,0 +1,197 @@
+package edu.kit.kastel.vads.compiler;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/// Maps byte offsets of a source file to lines and columns.
+///
+/// The lexer records the offset every line starts at while skipping whitespace.
+/// Lines and columns are only computed when they are actually requested, which is usually
+/// just for error messages and debug output.
+///
+/// When the source is edited, the map of the previous source can be forwarded to the map of the
+/// edited source. Offsets of the previous source are then resolved to their positions in the edited source.
+/// A map forwarded multiple times would have to be resolved through every map after it. Instead, the first
+/// lookup through such a chain points each map on it directly at the latest map, like path compression in
+/// a union-find structure. Later lookups take a single step, and the maps in between can be collected.
+public final class LineMap {
+    private static final int[] EMPTY = new int[0];
+    private static final int NO_TARGET = -1;
+    private int[] lineStarts = new int[64];
+    private int size = 1; // the first line starts at offset 0
+    // set when the source was edited, see forwardTo
+    private @Nullable LineMap successor;
+    // maps offsets to the successor: piece i covers the offsets from pieceStarts[i] up to the next start,
+    // it resolves all of them to pieceTargets[i] if that is not NO_TARGET, or moves them by pieceShifts[i]
+    private int[] pieceStarts = EMPTY;
+    private int[] pieceShifts = EMPTY;
+    private int[] pieceTargets = EMPTY;
+
+    /// Records that a new line starts at the given offset.
+    /// @param offset must be larger than any offset added before
+    public void addLineStart(int offset) {
+        assert this.successor == null : "cannot add lines to a forwarded map";
+        assert offset > this.lineStarts[this.size - 1] : "line starts must be added in order";
+        if (this.size == this.lineStarts.length) {
+            this.lineStarts = Arrays.copyOf(this.lineStarts, this.size * 2);
+        }
+        this.lineStarts[this.size++] = offset;
+    }
+
+    /// Adds the line starts of `other` after the offset `after`, moved by `delta`.
+    public void addLineStarts(LineMap other, int after, int delta) {
+        assert other.successor == null : "line starts of a forwarded map are not available";
+        for (int i = other.lineIndex(after) + 1; i < other.size; i++) {
+            addLineStart(other.lineStarts[i] + delta);
+        }
+    }
+
+    /// {@return a new map containing the line starts up to and including `offset`}
+    public LineMap prefix(int offset) {
+        assert this.successor == null : "line starts of a forwarded map are not available";
+        LineMap prefix = new LineMap();
+        int size = lineIndex(offset) + 1;
+        prefix.lineStarts = Arrays.copyOf(this.lineStarts, Math.max(size, prefix.lineStarts.length));
+        prefix.size = size;
+        return prefix;
+    }
+
+    /// Resolves all offsets in this map using the map of the edited source from now on.
+    /// Offsets within the replaced range are resolved to the start of the edit.
+    /// @param successor the map of the edited source
+    /// @param editStart the offset the edit starts at
+    /// @param editEnd the offset the edit ends at in this map
+    /// @param delta the number of bytes the source grew by
+    public void forwardTo(LineMap successor, int editStart, int editEnd, int delta) {
+        assert this.successor == null : "map was already forwarded";
+        this.successor = successor;
+        PieceBuilder pieces = new PieceBuilder(3);
+        pieces.add(0, 0, NO_TARGET);
+        pieces.add(editStart, 0, editStart);
+        pieces.add(editEnd, delta, NO_TARGET);
+        pieces.copyTo(this);
+        // the line starts of this map are not needed anymore
+        this.lineStarts = new int[] {0};
+        this.size = 1;
+    }
+
+    /// {@return the zero-based line the given offset is in}
+    public int line(int offset) {
+        if (this.successor == null) {
+            return lineIndex(offset);
+        }
+        // resolving the latest map may update the pieces of this map
+        LineMap latest = latest();
+        return latest.lineIndex(forward(offset));
+    }
+
+    /// {@return the zero-based column of the given offset within its line}
+    public int column(int offset) {
+        if (this.successor == null) {
+            return offset - this.lineStarts[lineIndex(offset)];
+        }
+        LineMap latest = latest();
+        int forwarded = forward(offset);
+        return forwarded - latest.lineStarts[latest.lineIndex(forwarded)];
+    }
+
+    /// {@return the map of the latest source, after pointing all maps in between directly at it}
+    private LineMap latest() {
+        assert this.successor != null;
+        if (this.successor.successor == null) {
+            return this.successor;
+        }
+        List<LineMap> path = new ArrayList<>();
+        LineMap map = this;
+        while (map.successor != null) {
+            path.add(map);
+            map = map.successor;
+        }
+        // the last map on the path already points at the latest map
+        for (int i = path.size() - 2; i >= 0; i--) {
+            path.get(i).forwardThrough(path.get(i + 1));
+        }
+        return map;
+    }
+
+    /// Composes the offset mapping of this map with the one of its successor `next`,
+    /// and points this map at the successor of `next`.
+    private void forwardThrough(LineMap next) {
+        PieceBuilder pieces = new PieceBuilder(this.pieceStarts.length + next.pieceStarts.length);
+        for (int i = 0; i < this.pieceStarts.length; i++) {
+            int start = this.pieceStarts[i];
+            if (this.pieceTargets[i] != NO_TARGET) {
+                pieces.add(start, 0, next.forward(this.pieceTargets[i]));
+                continue;
+            }
+            int shift = this.pieceShifts[i];
+            long end = i + 1 < this.pieceStarts.length ? this.pieceStarts[i + 1] : Long.MAX_VALUE;
+            // the pieces of next overlapping the offsets this piece is moved to
+            for (int j = next.piece(start + shift); j < next.pieceStarts.length; j++) {
+                long nextStart = (long) next.pieceStarts[j] - shift;
+                if (nextStart >= end) {
+                    break;
+                }
+                pieces.add((int) Math.max(start, nextStart), shift + next.pieceShifts[j], next.pieceTargets[j]);
+            }
+        }
+        pieces.copyTo(this);
+        this.successor = next.successor;
+    }
+
+    private int forward(int offset) {
+        int piece = piece(offset);
+        int target = this.pieceTargets[piece];
+        return target != NO_TARGET ? target : offset + this.pieceShifts[piece];
+    }
+
+    private int piece(int offset) {
+        int index = Arrays.binarySearch(this.pieceStarts, offset);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private int lineIndex(int offset) {
+        int index = Arrays.binarySearch(this.lineStarts, 0, this.size, offset);
+        // not found: the offset is in the line before the insertion point
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /// Collects the pieces of an offset mapping, skipping empty pieces and merging equal neighbors.
+    private static final class PieceBuilder {
+        private final int[] starts;
+        private final int[] shifts;
+        private final int[] targets;
+        private int size;
+
+        PieceBuilder(int capacity) {
+            this.starts = new int[capacity];
+            this.shifts = new int[capacity];
+            this.targets = new int[capacity];
+        }
+
+        /// Adds a piece starting at `start`, which ends the previous piece.
+        void add(int start, int shift, int target) {
+            if (this.size > 0 && this.starts[this.size - 1] == start) {
+                // the previous piece is empty
+                this.size--;
+            }
+            if (this.size > 0 && this.targets[this.size - 1] == target
+                && (target != NO_TARGET || this.shifts[this.size - 1] == shift)) {
+                return;
+            }
+            this.starts[this.size] = start;
+            this.shifts[this.size] = shift;
+            this.targets[this.size] = target;
+            this.size++;
+        }
+
+        void copyTo(LineMap map) {
+            map.pieceStarts = Arrays.copyOf(this.starts, this.size);
+            map.pieceShifts = Arrays.copyOf(this.shifts, this.size);
+            map.pieceTargets = Arrays.copyOf(this.targets, this.size);
+        }
+    }
+}
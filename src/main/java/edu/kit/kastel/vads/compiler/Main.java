@@ -3,9 +3,11 @@ package edu.kit.kastel.vads.compiler;
 import edu.kit.kastel.vads.compiler.backend.aasm.CodeGenerator;
 import edu.kit.kastel.vads.compiler.ir.IrGraph;
 import edu.kit.kastel.vads.compiler.ir.SsaTranslation;
-import edu.kit.kastel.vads.compiler.ir.optimize.LocalValueNumbering;
+import edu.kit.kastel.vads.compiler.ir.optimize.OptimizationLevel;
+import edu.kit.kastel.vads.compiler.ir.optimize.PassManager;
 import edu.kit.kastel.vads.compiler.ir.util.YCompPrinter;
 import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.lexer.ParallelLexer;
 import edu.kit.kastel.vads.compiler.parser.ParseException;
 import edu.kit.kastel.vads.compiler.parser.Parser;
 import edu.kit.kastel.vads.compiler.parser.TokenSource;
@@ -18,15 +20,29 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class Main {
+    // lexing in parallel does more work in total, it only pays off for large inputs
+    private static final long PARALLEL_LEXING_THRESHOLD = 64L << 20;
+
     public static void main(String[] args) throws IOException {
-        if (args.length != 2) {
-            System.err.println("Invalid arguments: Expected one input file and one output file");
+        OptimizationLevel level = OptimizationLevel.O1;
+        List<String> files = new ArrayList<>();
+        for (String arg : args) {
+            OptimizationLevel selected = OptimizationLevel.fromOption(arg);
+            if (selected != null) {
+                level = selected;
+            } else {
+                files.add(arg);
+            }
+        }
+        if (files.size() != 2) {
+            System.err.println("Invalid arguments: Expected [-O0|-O1|-O2] and one input file and one output file");
             System.exit(3);
         }
-        Path input = Path.of(args[0]);
-        Path output = Path.of(args[1]);
+        Path input = Path.of(files.get(0));
+        Path output = Path.of(files.get(1));
         ProgramTree program = lexAndParse(input);
         try {
             new SemanticAnalysis(program).analyze();
@@ -36,9 +52,15 @@ public class Main {
             return;
         }
         List<IrGraph> graphs = new ArrayList<>();
+        PassManager passManager = level.newPassManager();
         for (FunctionTree function : program.topLevelTrees()) {
-            SsaTranslation translation = new SsaTranslation(function, new LocalValueNumbering());
-            graphs.add(translation.translate());
+            SsaTranslation translation = new SsaTranslation(function, level);
+            IrGraph graph = translation.translate();
+            passManager.run(graph);
+            graphs.add(graph);
+        }
+        if ("true".equals(System.getenv("PASS_STATS")) || Boolean.getBoolean("passStats")) {
+            passManager.statistics().forEach(System.err::println);
         }
 
         if ("vcg".equals(System.getenv("DUMP_GRAPHS")) || "vcg".equals(System.getProperty("dumpGraphs"))) {
@@ -52,15 +74,19 @@ public class Main {
         // TODO: generate assembly and invoke gcc instead of generating abstract assembly
         String s = new CodeGenerator().generateCode(graphs);
 
-        Path generated_assembly = Path.of(args[1] + ".s");
+        Path generated_assembly = Path.of(files.get(1) + ".s");
         Files.writeString(generated_assembly, s);
         Process cmdProc = Runtime.getRuntime().exec("gcc " + generated_assembly + " -o " + output);
     }
 
     private static ProgramTree lexAndParse(Path input) throws IOException {
         try {
-            Lexer lexer = Lexer.forString(Files.readString(input));
-            TokenSource tokenSource = new TokenSource(lexer);
+            TokenSource tokenSource;
+            if (Files.size(input) >= PARALLEL_LEXING_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1) {
+                tokenSource = new TokenSource(ParallelLexer.lexAll(input, ForkJoinPool.commonPool()));
+            } else {
+                tokenSource = new TokenSource(Lexer.forFile(input));
+            }
             Parser parser = new Parser(tokenSource);
             return parser.parseProgram();
         } catch (ParseException e) {
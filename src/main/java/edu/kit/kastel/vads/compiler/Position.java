@@ -10,4 +10,22 @@ public sealed interface Position {
       return line() + ":" + column();
     }
   }
+
+  /// A position only storing its byte offset, line and column are resolved on demand.
+  record OffsetPosition(LineMap lines, int offset) implements Position {
+    @Override
+    public int line() {
+      return lines().line(offset());
+    }
+
+    @Override
+    public int column() {
+      return lines().column(offset());
+    }
+
+    @Override
+    public String toString() {
+      return line() + ":" + column();
+    }
+  }
 }
@@ -6,6 +6,16 @@ public sealed interface Span {
 
     Span merge(Span later);
 
+    /// {@return a span from `start` to `end`, which does not keep the positions if possible}
+    static Span of(Position start, Position end) {
+        if (start instanceof Position.OffsetPosition(LineMap lines, int from)
+            && end instanceof Position.OffsetPosition(LineMap endLines, int to)
+            && lines == endLines) {
+            return new OffsetSpan(lines, from, to);
+        }
+        return new SimpleSpan(start, end);
+    }
+
     record SimpleSpan(Position start, Position end) implements Span {
         @Override
         public Span merge(Span later) {
@@ -17,4 +27,43 @@ public sealed interface Span {
             return "[" + start() + "|" + end() + "]";
         }
     }
+
+    /// A span over byte offsets of a source file, packed as `start << 32 | end`.
+    /// Its positions, and therefore line and column, are only created when requested.
+    record OffsetSpan(LineMap lines, long range) implements Span {
+        public OffsetSpan(LineMap lines, int start, int end) {
+            this(lines, (long) start << 32 | end);
+        }
+
+        public int startOffset() {
+            return (int) (range() >>> 32);
+        }
+
+        public int endOffset() {
+            return (int) range();
+        }
+
+        @Override
+        public Position start() {
+            return new Position.OffsetPosition(lines(), startOffset());
+        }
+
+        @Override
+        public Position end() {
+            return new Position.OffsetPosition(lines(), endOffset());
+        }
+
+        @Override
+        public Span merge(Span later) {
+            if (later instanceof OffsetSpan offsetSpan && offsetSpan.lines() == lines()) {
+                return new OffsetSpan(lines(), startOffset(), offsetSpan.endOffset());
+            }
+            return new SimpleSpan(start(), later.end());
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start() + "|" + end() + "]";
+        }
+    }
 }
@@ -15,11 +15,9 @@ import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
 import edu.kit.kastel.vads.compiler.ir.node.ReturnNode;
 import edu.kit.kastel.vads.compiler.ir.node.StartNode;
 import edu.kit.kastel.vads.compiler.ir.node.SubNode;
+import edu.kit.kastel.vads.compiler.ir.util.NodeMap;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 import static edu.kit.kastel.vads.compiler.ir.util.NodeSupport.predecessorSkipProj;
 
@@ -39,7 +37,7 @@ public class CodeGenerator {
                 """);
         for (IrGraph graph : program) {
             AasmRegisterAllocator allocator = new AasmRegisterAllocator();
-            Map<Node, Register> registers = allocator.allocateRegisters(graph);
+            NodeMap<Register> registers = allocator.allocateRegisters(graph);
 
             builder.append("_")
                     .append(graph.name())
@@ -49,17 +47,13 @@ public class CodeGenerator {
         return builder.toString();
     }
 
-    private void generateForGraph(IrGraph graph, StringBuilder builder, Map<Node, Register> registers) {
-        Set<Node> visited = new HashSet<>();
-        scan(graph.endBlock(), visited, builder, registers);
+    private void generateForGraph(IrGraph graph, StringBuilder builder, NodeMap<Register> registers) {
+        for (Node node : graph.postorder()) {
+            generateForNode(node, builder, registers);
+        }
     }
 
-    private void scan(Node node, Set<Node> visited, StringBuilder builder, Map<Node, Register> registers) {
-        for (Node predecessor : node.predecessors()) {
-            if (visited.add(predecessor)) {
-                scan(predecessor, visited, builder, registers);
-            }
-        }
+    private void generateForNode(Node node, StringBuilder builder, NodeMap<Register> registers) {
 
         switch (node) {
             case AddNode add -> binary_src_dst(builder, registers, add, "add");
@@ -85,7 +79,7 @@ public class CodeGenerator {
 
     private static void binary_src_dst(
             StringBuilder builder,
-            Map<Node, Register> registers,
+            NodeMap<Register> registers,
             BinaryOperationNode node,
             String opcode
     ) {
@@ -99,7 +93,7 @@ public class CodeGenerator {
 
     private static void binary_div_mod(
             StringBuilder builder,
-            Map<Node, Register> registers,
+            NodeMap<Register> registers,
             BinaryOperationNode node,
             String opcode
     ) {
@@ -117,7 +111,7 @@ public class CodeGenerator {
 
     private static void binary(
             StringBuilder builder,
-            Map<Node, Register> registers,
+            NodeMap<Register> registers,
             BinaryOperationNode node,
             String opcode
     ) {
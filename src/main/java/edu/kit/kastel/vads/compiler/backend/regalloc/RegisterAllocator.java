@@ -1,11 +1,9 @@
 package edu.kit.kastel.vads.compiler.backend.regalloc;
 
 import edu.kit.kastel.vads.compiler.ir.IrGraph;
-import edu.kit.kastel.vads.compiler.ir.node.Node;
-
-import java.util.Map;
+import edu.kit.kastel.vads.compiler.ir.util.NodeMap;
 
 public interface RegisterAllocator {
 
-    Map<Node, Register> allocateRegisters(IrGraph graph);
+    NodeMap<Register> allocateRegisters(IrGraph graph);
 }
@@ -1,6 +1,7 @@
 package edu.kit.kastel.vads.compiler.ir;
 
 import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode;
 import edu.kit.kastel.vads.compiler.ir.node.Block;
 import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
 import edu.kit.kastel.vads.compiler.ir.node.DivNode;
@@ -13,27 +14,37 @@ import edu.kit.kastel.vads.compiler.ir.node.ReturnNode;
 import edu.kit.kastel.vads.compiler.ir.node.StartNode;
 import edu.kit.kastel.vads.compiler.ir.node.SubNode;
 import edu.kit.kastel.vads.compiler.ir.optimize.Optimizer;
+import edu.kit.kastel.vads.compiler.ir.util.NodeMap;
 import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import org.jspecify.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 class GraphConstructor {
 
     private final Optimizer optimizer;
+    // probed before allocating a node, so duplicates create no node and no def-use edges,
+    // null if identical operations are not shared
+    private final @Nullable NodeTable nodeTable;
     private final IrGraph graph;
     private final Map<Name, Map<Block, Node>> currentDef = new HashMap<>();
     private final Map<Block, Map<Name, Phi>> incompletePhis = new HashMap<>();
     private final Map<Block, Node> currentSideEffect = new HashMap<>();
     private final Map<Block, Phi> incompleteSideEffectPhis = new HashMap<>();
     private final Set<Block> sealedBlocks = new HashSet<>();
+    private final NodeMap<Node> replacedPhis;
     private Block currentBlock;
 
-    public GraphConstructor(Optimizer optimizer, String name) {
+    public GraphConstructor(Optimizer optimizer, boolean hashConsing, String name) {
         this.optimizer = optimizer;
+        this.nodeTable = hashConsing ? new NodeTable() : null;
         this.graph = new IrGraph(name);
+        this.replacedPhis = new NodeMap<>(this.graph);
         this.currentBlock = this.graph.startBlock();
         // the start block never gets any more predecessors
         sealBlock(this.currentBlock);
@@ -45,14 +56,17 @@ class GraphConstructor {
     }
 
     public Node newAdd(Node left, Node right) {
-        return this.optimizer.transform(new AddNode(currentBlock(), left, right));
+        Node known = findBinary(AddNode.class, left, right);
+        return known != null ? known : intern(new AddNode(currentBlock(), left, right));
     }
     public Node newSub(Node left, Node right) {
-        return this.optimizer.transform(new SubNode(currentBlock(), left, right));
+        Node known = findBinary(SubNode.class, left, right);
+        return known != null ? known : intern(new SubNode(currentBlock(), left, right));
     }
 
     public Node newMul(Node left, Node right) {
-        return this.optimizer.transform(new MulNode(currentBlock(), left, right));
+        Node known = findBinary(MulNode.class, left, right);
+        return known != null ? known : intern(new MulNode(currentBlock(), left, right));
     }
 
     public Node newDiv(Node left, Node right) {
@@ -70,7 +84,21 @@ class GraphConstructor {
     public Node newConstInt(int value) {
         // always move const into start block, this allows better deduplication
         // and resultingly in better value numbering
-        return this.optimizer.transform(new ConstIntNode(this.graph.startBlock(), value));
+        Node known = this.nodeTable == null ? null : this.nodeTable.findConstInt(this.graph.startBlock(), value);
+        return known != null ? known : intern(new ConstIntNode(this.graph.startBlock(), value));
+    }
+
+    private @Nullable Node findBinary(Class<? extends BinaryOperationNode> kind, Node left, Node right) {
+        return this.nodeTable == null ? null : this.nodeTable.findBinary(kind, currentBlock(), left, right);
+    }
+
+    // div and mod are not interned, each one has a distinct side effect input
+    private Node intern(Node node) {
+        Node transformed = this.optimizer.transform(node);
+        if (this.nodeTable != null) {
+            this.nodeTable.put(node, transformed);
+        }
+        return transformed;
     }
 
     public Node newSideEffectProj(Node node) {
@@ -86,8 +114,12 @@ class GraphConstructor {
     }
 
     public Phi newPhi() {
+        return newPhi(currentBlock());
+    }
+
+    private Phi newPhi(Block block) {
         // don't transform phi directly, it is not ready yet
-        return new Phi(currentBlock());
+        return new Phi(block);
     }
 
     public IrGraph graph() {
@@ -101,7 +133,7 @@ class GraphConstructor {
     Node readVariable(Name variable, Block block) {
         Node node = this.currentDef.getOrDefault(variable, Map.of()).get(block);
         if (node != null) {
-            return node;
+            return resolveReplacedPhi(node);
         }
         return readVariableRecursive(variable, block);
     }
@@ -110,12 +142,12 @@ class GraphConstructor {
     private Node readVariableRecursive(Name variable, Block block) {
         Node val;
         if (!this.sealedBlocks.contains(block)) {
-            val = newPhi();
+            val = newPhi(block);
             this.incompletePhis.computeIfAbsent(block, _ -> new HashMap<>()).put(variable, (Phi) val);
-        } else if (block.predecessors().size() == 1) {
-            val = readVariable(variable, block.predecessors().getFirst().block());
+        } else if (block.predecessorCount() == 1) {
+            val = readVariable(variable, block.predecessor(0).block());
         } else {
-            val = newPhi();
+            val = newPhi(block);
             writeVariable(variable, block, val);
             val = addPhiOperands(variable, (Phi) val);
         }
@@ -124,18 +156,54 @@ class GraphConstructor {
     }
 
     Node addPhiOperands(Name variable, Phi phi) {
-        for (Node pred : phi.block().predecessors()) {
-            phi.appendOperand(readVariable(variable, pred.block()));
+        Block block = phi.block();
+        for (int i = 0; i < block.predecessorCount(); i++) {
+            phi.appendOperand(readVariable(variable, block.predecessor(i).block()));
         }
         return tryRemoveTrivialPhi(phi);
     }
 
     Node tryRemoveTrivialPhi(Phi phi) {
-        // TODO: the paper shows how to remove trivial phis.
-        // as this is not a problem in Lab 1 and it is just
-        // a simplification, we recommend to implement this
-        // part yourself.
-        return phi;
+        @Nullable Node same = null;
+        for (int i = 0; i < phi.predecessorCount(); i++) {
+            Node operand = phi.predecessor(i);
+            if (operand == same || operand == phi) {
+                continue; // unique value or self-reference
+            }
+            if (same != null) {
+                return phi; // the phi merges at least two values: not trivial
+            }
+            same = operand;
+        }
+        if (same == null) {
+            // the phi is unreachable or not complete yet, there is no undefined value to use instead
+            return phi;
+        }
+        List<Phi> phiUsers = new ArrayList<>();
+        for (int i = 0; i < phi.successorCount(); i++) {
+            if (phi.successor(i) instanceof Phi user && user != phi) {
+                phiUsers.add(user);
+            }
+        }
+        phi.replaceAllUsesWith(same);
+        // definitions still referring to the phi are resolved on read
+        this.replacedPhis.put(phi, same);
+        // the users might have become trivial now
+        for (Phi user : phiUsers) {
+            if (!this.replacedPhis.containsKey(user)) {
+                tryRemoveTrivialPhi(user);
+            }
+        }
+        return same;
+    }
+
+    /// {@return the node replacing `node` if it is a removed phi, otherwise `node`}
+    private Node resolveReplacedPhi(Node node) {
+        Node replacement;
+        while (node instanceof Phi phi && (replacement = this.replacedPhis.get(phi)) != null) {
+            node = replacement;
+        }
+        return node;
     }
 
     void sealBlock(Block block) {
@@ -160,7 +228,7 @@ class GraphConstructor {
     private Node readSideEffect(Block block) {
         Node node = this.currentSideEffect.get(block);
         if (node != null) {
-            return node;
+            return resolveReplacedPhi(node);
         }
         return readSideEffectRecursive(block);
     }
@@ -168,13 +236,13 @@ class GraphConstructor {
     private Node readSideEffectRecursive(Block block) {
         Node val;
         if (!this.sealedBlocks.contains(block)) {
-            val = newPhi();
+            val = newPhi(block);
             Phi old = this.incompleteSideEffectPhis.put(block, (Phi) val);
             assert old == null : "double readSideEffectRecursive for " + block;
-        } else if (block.predecessors().size() == 1) {
-            val = readSideEffect(block.predecessors().getFirst().block());
+        } else if (block.predecessorCount() == 1) {
+            val = readSideEffect(block.predecessor(0).block());
         } else {
-            val = newPhi();
+            val = newPhi(block);
             writeSideEffect(block, val);
             val = addPhiOperands((Phi) val);
         }
@@ -183,8 +251,9 @@ class GraphConstructor {
     }
 
     Node addPhiOperands(Phi phi) {
-        for (Node pred : phi.block().predecessors()) {
-            phi.appendOperand(readSideEffect(pred.block()));
+        Block block = phi.block();
+        for (int i = 0; i < block.predecessorCount(); i++) {
+            phi.appendOperand(readSideEffect(block.predecessor(i).block()));
         }
         return tryRemoveTrivialPhi(phi);
     }
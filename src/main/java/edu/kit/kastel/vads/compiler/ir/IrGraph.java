@@ -2,15 +2,27 @@ package edu.kit.kastel.vads.compiler.ir;
 
 import edu.kit.kastel.vads.compiler.ir.node.Block;
 import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.util.NodeSet;
+import org.jspecify.annotations.Nullable;
 
-import java.util.IdentityHashMap;
-import java.util.LinkedHashSet;
-import java.util.Map;
-import java.util.SequencedSet;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.List;
 
+/// A function in SSA form.
+/// The def-use edges are stored in the nodes, see [Node#successorCount()].
+///
+/// Each node gets a dense [id][Node#id()] from its graph, so side tables of passes can be arrays
+/// indexed by node id, see [edu.kit.kastel.vads.compiler.ir.util.NodeMap].
+///
+/// The nodes reachable from the end block are available in [postorder][#postorder()] and
+/// [reverse postorder][#reversePostorder()]. The orders are computed without recursion, so the depth
+/// of the graph is not limited by the size of the call stack. They are cached until an input of a
+/// node changes.
 public class IrGraph {
-    private final Map<Node, SequencedSet<Node>> successors = new IdentityHashMap<>();
+    private int nodeCount;
+    // only set during renumber, nodes refuse to change their id otherwise
+    private boolean renumbering;
+    private @Nullable List<Node> postorder;
     private final Block startBlock;
     private final Block endBlock;
     private final String name;
@@ -21,21 +33,87 @@ public class IrGraph {
         this.endBlock = new Block(this);
     }
 
-    public void registerSuccessor(Node node, Node successor) {
-        this.successors.computeIfAbsent(node, _ -> new LinkedHashSet<>()).add(successor);
+    /// {@return a new node id, only to be used by the constructors of nodes}
+    public int newNodeId() {
+        return this.nodeCount++;
     }
 
-    public void removeSuccessor(Node node, Node oldSuccessor) {
-        this.successors.computeIfAbsent(node, _ -> new LinkedHashSet<>()).remove(oldSuccessor);
+    /// {@return the number of ids handed out, all node ids are smaller}
+    public int nodeCount() {
+        return this.nodeCount;
     }
 
-    /// {@return the set of nodes that have the given node as one of their inputs}
-    public Set<Node> successors(Node node) {
-        SequencedSet<Node> successors = this.successors.get(node);
-        if (successors == null) {
-            return Set.of();
+    /// Gives the `nodes` the ids `0` to `nodes.size() - 1` in the given order.
+    /// All nodes still in use must be given, other nodes must not be used afterwards.
+    /// Side tables indexed by node id that were created before become invalid.
+    public void renumber(List<? extends Node> nodes) {
+        this.renumbering = true;
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            assert node.graph() == this : node + " is not in " + this.name;
+            node.setId(i);
         }
-        return Set.copyOf(successors);
+        this.renumbering = false;
+        this.nodeCount = nodes.size();
+        invalidateOrders();
+    }
+
+    /// {@return the nodes reachable from the end block by following inputs, each after all its inputs}
+    /// The inputs of a node are visited in order, the end block is the last node.
+    /// The returned list must not be used after the graph was changed.
+    public List<Node> postorder() {
+        if (this.postorder == null) {
+            this.postorder = computePostorder();
+        }
+        return this.postorder;
+    }
+
+    /// {@return the nodes of [#postorder()] in reverse order, each before all its inputs}
+    public List<Node> reversePostorder() {
+        return postorder().reversed();
+    }
+
+    /// {@return whether [#renumber(List)] is currently assigning ids, see [Node#setId(int)]}
+    public boolean isRenumbering() {
+        return this.renumbering;
+    }
+
+    /// Drops the cached orders, called by nodes when their inputs change.
+    public void invalidateOrders() {
+        this.postorder = null;
+    }
+
+    private List<Node> computePostorder() {
+        Node[] order = new Node[this.nodeCount];
+        int size = 0;
+        // the nodes on the current path, and the index of the next input to visit of each of them
+        Node[] stack = new Node[64];
+        int[] nextInput = new int[64];
+        int depth = 0;
+        NodeSet visited = new NodeSet();
+        visited.add(this.endBlock);
+        stack[depth++] = this.endBlock;
+        while (depth > 0) {
+            Node node = stack[depth - 1];
+            int input = nextInput[depth - 1];
+            if (input == node.predecessorCount()) {
+                depth--;
+                order[size++] = node;
+                continue;
+            }
+            nextInput[depth - 1]++;
+            Node predecessor = node.predecessor(input);
+            if (visited.add(predecessor)) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                    nextInput = Arrays.copyOf(nextInput, depth * 2);
+                }
+                stack[depth] = predecessor;
+                nextInput[depth] = 0;
+                depth++;
+            }
+        }
+        return List.of(Arrays.copyOf(order, size));
     }
 
     public Block startBlock() {
@@ -0,0 +1,134 @@
+package edu.kit.kastel.vads.compiler.ir;
+
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import org.jspecify.annotations.Nullable;
+
+/// A hash-consing table that is probed with the parts of a node before the node is allocated.
+///
+/// Entries are keyed by (kind, block, inputs, constant) of a node that was allocated before,
+/// and map to the node the [optimizer][edu.kit.kastel.vads.compiler.ir.optimize.Optimizer]
+/// returned for it. Inputs are compared by identity.
+/// The table uses open addressing with linear probing, the structural hash of each entry is
+/// kept next to it, so most mismatches are rejected without touching the nodes.
+final class NodeTable {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private @Nullable Node[] keys = new Node[INITIAL_CAPACITY];
+    private @Nullable Node[] values = new Node[INITIAL_CAPACITY];
+    private int size;
+
+    /// {@return the node recorded for a binary operation of the given kind, or `null`}
+    @Nullable Node findBinary(Class<? extends BinaryOperationNode> kind, Block block, Node left, Node right) {
+        int hash = hash(kind, block, left, right, 0);
+        int mask = this.keys.length - 1;
+        for (int i = hash & mask; this.keys[i] != null; i = (i + 1) & mask) {
+            Node key = this.keys[i];
+            if (this.hashes[i] == hash && key.getClass() == kind && key.block() == block
+                && sameInputs(kind, key, left, right)) {
+                return this.values[i];
+            }
+        }
+        return null;
+    }
+
+    /// {@return the node recorded for a constant in the given block, or `null`}
+    @Nullable Node findConstInt(Block block, int value) {
+        int hash = hash(ConstIntNode.class, block, null, null, value);
+        int mask = this.keys.length - 1;
+        for (int i = hash & mask; this.keys[i] != null; i = (i + 1) & mask) {
+            if (this.hashes[i] == hash && this.keys[i] instanceof ConstIntNode constant
+                && constant.block() == block && constant.value() == value) {
+                return this.values[i];
+            }
+        }
+        return null;
+    }
+
+    /// Records `value` as the node to use instead of nodes structurally equal to `key`.
+    /// `key` must be a [BinaryOperationNode] or a [ConstIntNode].
+    void put(Node key, Node value) {
+        if (2 * (this.size + 1) > this.keys.length) {
+            grow();
+        }
+        insert(hash(key), key, value);
+        this.size++;
+    }
+
+    private void insert(int hash, Node key, Node value) {
+        int mask = this.keys.length - 1;
+        int i = hash & mask;
+        while (this.keys[i] != null) {
+            i = (i + 1) & mask;
+        }
+        this.hashes[i] = hash;
+        this.keys[i] = key;
+        this.values[i] = value;
+    }
+
+    private void grow() {
+        int[] oldHashes = this.hashes;
+        @Nullable Node[] oldKeys = this.keys;
+        @Nullable Node[] oldValues = this.values;
+        int capacity = oldKeys.length * 2;
+        this.hashes = new int[capacity];
+        this.keys = new Node[capacity];
+        this.values = new Node[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            Node key = oldKeys[i];
+            if (key != null) {
+                insert(oldHashes[i], key, oldValues[i]);
+            }
+        }
+    }
+
+    private static boolean sameInputs(Class<? extends Node> kind, Node key, Node left, Node right) {
+        Node keyLeft = key.predecessor(BinaryOperationNode.LEFT);
+        Node keyRight = key.predecessor(BinaryOperationNode.RIGHT);
+        if (keyLeft == left && keyRight == right) {
+            return true;
+        }
+        // commutative operation: op(x, y) == op(y, x)
+        return isCommutative(kind) && keyLeft == right && keyRight == left;
+    }
+
+    private static boolean isCommutative(Class<? extends Node> kind) {
+        return kind == AddNode.class || kind == MulNode.class;
+    }
+
+    private static int hash(Node node) {
+        if (node instanceof ConstIntNode constant) {
+            return hash(ConstIntNode.class, constant.block(), null, null, constant.value());
+        }
+        return hash(
+            node.getClass(),
+            node.block(),
+            node.predecessor(BinaryOperationNode.LEFT),
+            node.predecessor(BinaryOperationNode.RIGHT),
+            0
+        );
+    }
+
+    private static int hash(Class<? extends Node> kind, Block block, @Nullable Node left, @Nullable Node right, int value) {
+        int leftId = left == null ? -1 : left.id();
+        int rightId = right == null ? -1 : right.id();
+        if (isCommutative(kind) && leftId > rightId) {
+            // commutative operation: we want h(op(x, y)) == h(op(y, x))
+            int tmp = leftId;
+            leftId = rightId;
+            rightId = tmp;
+        }
+        int h = kind.hashCode();
+        h = 31 * h + block.id();
+        h = 31 * h + leftId;
+        h = 31 * h + rightId;
+        h = 31 * h + value;
+        // spread the bits, the table only uses the lower ones
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,9 +1,11 @@
 package edu.kit.kastel.vads.compiler.ir;
 
+import edu.kit.kastel.vads.compiler.Span;
 import edu.kit.kastel.vads.compiler.ir.node.Block;
 import edu.kit.kastel.vads.compiler.ir.node.DivNode;
 import edu.kit.kastel.vads.compiler.ir.node.ModNode;
 import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.optimize.OptimizationLevel;
 import edu.kit.kastel.vads.compiler.ir.optimize.Optimizer;
 import edu.kit.kastel.vads.compiler.ir.util.DebugInfo;
 import edu.kit.kastel.vads.compiler.ir.util.DebugInfoHelper;
@@ -11,6 +13,7 @@ import edu.kit.kastel.vads.compiler.parser.ast.AssignmentTree;
 import edu.kit.kastel.vads.compiler.parser.ast.BinaryOperationTree;
 import edu.kit.kastel.vads.compiler.parser.ast.BlockTree;
 import edu.kit.kastel.vads.compiler.parser.ast.DeclarationTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ExpressionTree;
 import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
 import edu.kit.kastel.vads.compiler.parser.ast.IdentExpressionTree;
 import edu.kit.kastel.vads.compiler.parser.ast.LValueIdentTree;
@@ -23,10 +26,13 @@ import edu.kit.kastel.vads.compiler.parser.ast.StatementTree;
 import edu.kit.kastel.vads.compiler.parser.ast.Tree;
 import edu.kit.kastel.vads.compiler.parser.ast.TypeTree;
 import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import edu.kit.kastel.vads.compiler.parser.visitor.TreeWalker;
 import edu.kit.kastel.vads.compiler.parser.visitor.Visitor;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.BinaryOperator;
 
@@ -42,8 +48,18 @@ public class SsaTranslation {
     private final GraphConstructor constructor;
 
     public SsaTranslation(FunctionTree function, Optimizer optimizer) {
+        this(function, optimizer, true);
+    }
+
+    /// Translates with the [optimizer][OptimizationLevel#newOptimizer()] of the given level, and only shares
+    /// identical operations if the level [uses hash-consing][OptimizationLevel#hashConsing()].
+    public SsaTranslation(FunctionTree function, OptimizationLevel level) {
+        this(function, level.newOptimizer(), level.hashConsing());
+    }
+
+    private SsaTranslation(FunctionTree function, Optimizer optimizer, boolean hashConsing) {
         this.function = function;
-        this.constructor = new GraphConstructor(optimizer, function.name().name().asString());
+        this.constructor = new GraphConstructor(optimizer, hashConsing, function.name().name().asString());
     }
 
     public IrGraph translate() {
@@ -96,7 +112,7 @@ public class SsaTranslation {
 
             switch (assignmentTree.lValue()) {
                 case LValueIdentTree(var name) -> {
-                    Node rhs = assignmentTree.expression().accept(this, data).orElseThrow();
+                    Node rhs = translateExpression(assignmentTree.expression(), data);
                     if (desugar != null) {
                         rhs = desugar.apply(data.readVariable(name.name(), data.currentBlock()), rhs);
                     }
@@ -109,20 +125,7 @@ public class SsaTranslation {
 
         @Override
         public Optional<Node> visit(BinaryOperationTree binaryOperationTree, SsaTranslation data) {
-            pushSpan(binaryOperationTree);
-            Node lhs = binaryOperationTree.lhs().accept(this, data).orElseThrow();
-            Node rhs = binaryOperationTree.rhs().accept(this, data).orElseThrow();
-            Node res = switch (binaryOperationTree.operatorType()) {
-                case MINUS -> data.constructor.newSub(lhs, rhs);
-                case PLUS -> data.constructor.newAdd(lhs, rhs);
-                case MUL -> data.constructor.newMul(lhs, rhs);
-                case DIV -> projResultDivMod(data, data.constructor.newDiv(lhs, rhs));
-                case MOD -> projResultDivMod(data, data.constructor.newMod(lhs, rhs));
-                default ->
-                    throw new IllegalArgumentException("not a binary expression operator " + binaryOperationTree.operatorType());
-            };
-            popSpan();
-            return Optional.of(res);
+            return Optional.of(translateExpression(binaryOperationTree, data));
         }
 
         @Override
@@ -143,7 +146,7 @@ public class SsaTranslation {
         public Optional<Node> visit(DeclarationTree declarationTree, SsaTranslation data) {
             pushSpan(declarationTree);
             if (declarationTree.initializer() != null) {
-                Node rhs = declarationTree.initializer().accept(this, data).orElseThrow();
+                Node rhs = translateExpression(declarationTree.initializer(), data);
                 data.writeVariable(declarationTree.name().name(), data.currentBlock(), rhs);
             }
             popSpan();
@@ -162,18 +165,12 @@ public class SsaTranslation {
 
         @Override
         public Optional<Node> visit(IdentExpressionTree identExpressionTree, SsaTranslation data) {
-            pushSpan(identExpressionTree);
-            Node value = data.readVariable(identExpressionTree.name().name(), data.currentBlock());
-            popSpan();
-            return Optional.of(value);
+            return Optional.of(translateExpression(identExpressionTree, data));
         }
 
         @Override
         public Optional<Node> visit(LiteralTree literalTree, SsaTranslation data) {
-            pushSpan(literalTree);
-            Node node = data.constructor.newConstInt((int) literalTree.parseValue().orElseThrow());
-            popSpan();
-            return Optional.of(node);
+            return Optional.of(translateExpression(literalTree, data));
         }
 
         @Override
@@ -188,11 +185,7 @@ public class SsaTranslation {
 
         @Override
         public Optional<Node> visit(NegateTree negateTree, SsaTranslation data) {
-            pushSpan(negateTree);
-            Node node = negateTree.expression().accept(this, data).orElseThrow();
-            Node res = data.constructor.newSub(data.constructor.newConstInt(0), node);
-            popSpan();
-            return Optional.of(res);
+            return Optional.of(translateExpression(negateTree, data));
         }
 
         @Override
@@ -203,7 +196,7 @@ public class SsaTranslation {
         @Override
         public Optional<Node> visit(ReturnTree returnTree, SsaTranslation data) {
             pushSpan(returnTree);
-            Node node = returnTree.expression().accept(this, data).orElseThrow();
+            Node node = translateExpression(returnTree.expression(), data);
             Node ret = data.constructor.newReturn(node);
             data.constructor.graph().endBlock().addPredecessor(ret);
             popSpan();
@@ -215,6 +208,63 @@ public class SsaTranslation {
             throw new UnsupportedOperationException();
         }
 
+        /// Translates an expression without recursion, so expressions of any depth can be translated.
+        /// The trees are translated in postorder, the values and spans of the operands are kept on stacks.
+        private Node translateExpression(ExpressionTree expression, SsaTranslation data) {
+            DebugInfo enclosing = DebugInfoHelper.getDebugInfo();
+            List<Node> values = new ArrayList<>();
+            // spans are computed from the operand spans, asking a tree for its span would walk it again
+            List<Span> spans = new ArrayList<>();
+            TreeWalker.postorder(expression, tree -> {
+                switch (tree) {
+                    case BinaryOperationTree binaryOperationTree -> {
+                        Span rhsSpan = spans.removeLast();
+                        Span span = spans.removeLast().merge(rhsSpan);
+                        DebugInfoHelper.setDebugInfo(new DebugInfo.SourceInfo(span));
+                        Node rhs = values.removeLast();
+                        Node lhs = values.removeLast();
+                        Node res = switch (binaryOperationTree.operatorType()) {
+                            case MINUS -> data.constructor.newSub(lhs, rhs);
+                            case PLUS -> data.constructor.newAdd(lhs, rhs);
+                            case MUL -> data.constructor.newMul(lhs, rhs);
+                            case DIV -> projResultDivMod(data, data.constructor.newDiv(lhs, rhs));
+                            case MOD -> projResultDivMod(data, data.constructor.newMod(lhs, rhs));
+                            default -> throw new IllegalArgumentException(
+                                "not a binary expression operator " + binaryOperationTree.operatorType()
+                            );
+                        };
+                        values.add(res);
+                        spans.add(span);
+                    }
+                    case IdentExpressionTree identExpressionTree -> {
+                        Span span = identExpressionTree.span();
+                        DebugInfoHelper.setDebugInfo(new DebugInfo.SourceInfo(span));
+                        values.add(data.readVariable(identExpressionTree.name().name(), data.currentBlock()));
+                        spans.add(span);
+                    }
+                    case LiteralTree literalTree -> {
+                        DebugInfoHelper.setDebugInfo(new DebugInfo.SourceInfo(literalTree.span()));
+                        values.add(data.constructor.newConstInt(literalTree.intValue()));
+                        spans.add(literalTree.span());
+                    }
+                    case NegateTree negateTree -> {
+                        Span span = negateTree.minusPos().merge(spans.removeLast());
+                        DebugInfoHelper.setDebugInfo(new DebugInfo.SourceInfo(span));
+                        Node node = values.removeLast();
+                        values.add(data.constructor.newSub(data.constructor.newConstInt(0), node));
+                        spans.add(span);
+                    }
+                    case NameTree _ -> {
+                        // only part of an identifier expression
+                    }
+                    default -> throw new IllegalArgumentException("not an expression " + tree);
+                }
+            });
+            DebugInfoHelper.setDebugInfo(enclosing);
+            assert values.size() == 1 : "incomplete expression";
+            return values.getFirst();
+        }
+
         private Node projResultDivMod(SsaTranslation data, Node divMod) {
             // make sure we actually have a div or a mod, as optimizations could
             // have changed it to something else already
@@ -4,22 +4,44 @@ import edu.kit.kastel.vads.compiler.ir.util.DebugInfo;
 import edu.kit.kastel.vads.compiler.ir.IrGraph;
 import edu.kit.kastel.vads.compiler.ir.util.DebugInfoHelper;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
 
 /// The base class for all nodes.
+///
+/// Def-use edges are stored intrusively: each node knows its successors, the nodes using it as
+/// an input. A successor using a node as multiple inputs is its successor multiple times.
+/// Every input remembers the index of its use in the successors of the predecessor, and every use
+/// the index of the input, so edges are added and removed in constant time.
 public sealed abstract class Node permits BinaryOperationNode, Block, ConstIntNode, Phi, ProjNode, ReturnNode, StartNode {
+    private static final Node[] NO_NODES = new Node[0];
+    private static final int[] NO_INDICES = new int[0];
+
     private final IrGraph graph;
     private final Block block;
-    private final List<Node> predecessors = new ArrayList<>();
+    private int id;
+    private Node[] predecessors;
+    // the index of the use in the successors of the predecessor at the same index
+    private int[] useIndices;
+    private int predecessorCount;
+    private Node[] successors = NO_NODES;
+    // the input of the successor at the same index this node is used as
+    private int[] successorInputs = NO_INDICES;
+    private int successorCount;
     private final DebugInfo debugInfo;
 
     protected Node(Block block, Node... predecessors) {
         this.graph = block.graph();
         this.block = block;
-        this.predecessors.addAll(List.of(predecessors));
-        for (Node predecessor : predecessors) {
-            graph.registerSuccessor(predecessor, this);
+        this.id = this.graph.newNodeId();
+        this.predecessors = predecessors.clone();
+        this.useIndices = new int[predecessors.length];
+        this.predecessorCount = predecessors.length;
+        for (int i = 0; i < predecessors.length; i++) {
+            this.useIndices[i] = predecessors[i].addUse(this, i);
         }
         this.debugInfo = DebugInfoHelper.getDebugInfo();
     }
@@ -28,6 +50,9 @@ public sealed abstract class Node permits BinaryOperationNode, Block, ConstIntNo
         assert this.getClass() == Block.class : "must be used by Block only";
         this.graph = graph;
         this.block = (Block) this;
+        this.id = graph.newNodeId();
+        this.predecessors = NO_NODES;
+        this.useIndices = NO_INDICES;
         this.debugInfo = DebugInfo.NoInfo.INSTANCE;
     }
 
@@ -39,23 +64,126 @@ public sealed abstract class Node permits BinaryOperationNode, Block, ConstIntNo
         return this.block;
     }
 
+    /// {@return the id of this node, unique within its graph}
+    /// Ids are handed out in ascending order starting at 0, see [IrGraph#nodeCount()].
+    public final int id() {
+        return this.id;
+    }
+
+    /// Changes the id of this node, only to be used by [IrGraph#renumber(List)].
+    /// Side tables rely on the ids, so changing them at any other time is an assertion failure.
+    public final void setId(int id) {
+        assert this.graph.isRenumbering() : "ids are only assigned by IrGraph#renumber";
+        this.id = id;
+    }
+
+    /// {@return a read-only view of the predecessors, it reflects later changes of the predecessors}
+    /// Passes should prefer [#predecessorCount()] and [#predecessor(int)], which don't allocate.
     public final List<? extends Node> predecessors() {
-        return List.copyOf(this.predecessors);
+        return new PredecessorView();
+    }
+
+    /// {@return the number of inputs of this node}
+    public final int predecessorCount() {
+        return this.predecessorCount;
     }
 
     public final void setPredecessor(int idx, Node node) {
-        this.graph.removeSuccessor(this.predecessors.get(idx), this);
-        this.predecessors.set(idx, node);
-        this.graph.registerSuccessor(node, this);
+        Objects.checkIndex(idx, this.predecessorCount);
+        this.predecessors[idx].removeUse(this.useIndices[idx]);
+        this.predecessors[idx] = node;
+        this.useIndices[idx] = node.addUse(this, idx);
+        this.graph.invalidateOrders();
     }
 
     public final void addPredecessor(Node node) {
-        this.predecessors.add(node);
-        this.graph.registerSuccessor(node, this);
+        if (this.predecessorCount == this.predecessors.length) {
+            int capacity = Math.max(4, this.predecessorCount * 2);
+            this.predecessors = Arrays.copyOf(this.predecessors, capacity);
+            this.useIndices = Arrays.copyOf(this.useIndices, capacity);
+        }
+        int idx = this.predecessorCount++;
+        this.predecessors[idx] = node;
+        this.useIndices[idx] = node.addUse(this, idx);
+        this.graph.invalidateOrders();
     }
 
     public final Node predecessor(int idx) {
-        return this.predecessors.get(idx);
+        Objects.checkIndex(idx, this.predecessorCount);
+        return this.predecessors[idx];
+    }
+
+    /// {@return the number of uses of this node as an input of other nodes}
+    public final int successorCount() {
+        return this.successorCount;
+    }
+
+    /// {@return the node using this node at the given use index, see [#successorCount()]}
+    /// The order of the successors changes when uses are removed.
+    public final Node successor(int idx) {
+        Objects.checkIndex(idx, this.successorCount);
+        return this.successors[idx];
+    }
+
+    /// Makes every node using this node as an input use `replacement` instead.
+    /// Afterwards, this node has no successors.
+    public final void replaceAllUsesWith(Node replacement) {
+        assert replacement != this : "cannot replace a node with itself";
+        while (this.successorCount > 0) {
+            int last = this.successorCount - 1;
+            // removes the last use of this node
+            this.successors[last].setPredecessor(this.successorInputs[last], replacement);
+        }
+    }
+
+    /// Removes all inputs of this node, so it is no longer a successor of them.
+    /// This is used to delete dead nodes.
+    public final void removeAllPredecessors() {
+        for (int i = 0; i < this.predecessorCount; i++) {
+            this.predecessors[i].removeUse(this.useIndices[i]);
+        }
+        this.predecessors = NO_NODES;
+        this.useIndices = NO_INDICES;
+        this.predecessorCount = 0;
+        this.graph.invalidateOrders();
+    }
+
+    /// Shrinks the storage of the inputs and uses of this node to their current number.
+    public final void trimToSize() {
+        if (this.predecessors.length != this.predecessorCount) {
+            this.predecessors = Arrays.copyOf(this.predecessors, this.predecessorCount);
+            this.useIndices = Arrays.copyOf(this.useIndices, this.predecessorCount);
+        }
+        if (this.successors.length != this.successorCount) {
+            this.successors = Arrays.copyOf(this.successors, this.successorCount);
+            this.successorInputs = Arrays.copyOf(this.successorInputs, this.successorCount);
+        }
+    }
+
+    /// Records that `successor` uses this node as its input `input`.
+    /// {@return the index of the use}
+    private int addUse(Node successor, int input) {
+        if (this.successorCount == this.successors.length) {
+            int capacity = Math.max(4, this.successorCount * 2);
+            this.successors = Arrays.copyOf(this.successors, capacity);
+            this.successorInputs = Arrays.copyOf(this.successorInputs, capacity);
+        }
+        int idx = this.successorCount++;
+        this.successors[idx] = successor;
+        this.successorInputs[idx] = input;
+        return idx;
+    }
+
+    /// Removes the use at the given index by moving the last use into its place.
+    private void removeUse(int idx) {
+        int last = --this.successorCount;
+        if (idx != last) {
+            Node moved = this.successors[last];
+            int movedInput = this.successorInputs[last];
+            this.successors[idx] = moved;
+            this.successorInputs[idx] = movedInput;
+            moved.useIndices[movedInput] = idx;
+        }
     }
 
     @Override
@@ -71,6 +199,18 @@ public sealed abstract class Node permits BinaryOperationNode, Block, ConstIntNo
         return debugInfo;
     }
 
+    private final class PredecessorView extends AbstractList<Node> implements RandomAccess {
+        @Override
+        public Node get(int index) {
+            return predecessor(index);
+        }
+
+        @Override
+        public int size() {
+            return Node.this.predecessorCount;
+        }
+    }
+
     protected static int predecessorHash(Node node, int predecessor) {
         return System.identityHashCode(node.predecessor(predecessor));
     }
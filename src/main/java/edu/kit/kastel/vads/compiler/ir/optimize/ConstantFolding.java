@@ -0,0 +1,72 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.SubNode;
+
+/// Folds operations on constants and applies algebraic identities like `x * 1 = x`.
+///
+/// Arithmetic wraps around like Java `int` arithmetic. A division or modulo that traps at
+/// runtime, by zero or of `INT_MIN` by `-1`, is never folded.
+/// New constants are created in the start block and are not deduplicated here,
+/// this is meant to be [chained][Optimizer#andThen(Optimizer)] with value numbering.
+public class ConstantFolding implements Optimizer {
+
+    @Override
+    public Node transform(Node node) {
+        if (!(node instanceof BinaryOperationNode binOp)) {
+            return node;
+        }
+        Node left = binOp.predecessor(BinaryOperationNode.LEFT);
+        Node right = binOp.predecessor(BinaryOperationNode.RIGHT);
+        if (left instanceof ConstIntNode l && right instanceof ConstIntNode r) {
+            return fold(binOp, l.value(), r.value());
+        }
+        return switch (binOp) {
+            case AddNode _ when isConstant(left, 0) -> right;
+            case AddNode _ when isConstant(right, 0) -> left;
+            case SubNode _ when isConstant(right, 0) -> left;
+            case SubNode _ when left == right -> constant(node, 0);
+            // 0 - (0 - x) = x
+            case SubNode _ when isConstant(left, 0) && right instanceof SubNode inner
+                && isConstant(inner.predecessor(BinaryOperationNode.LEFT), 0) ->
+                inner.predecessor(BinaryOperationNode.RIGHT);
+            case MulNode _ when isConstant(left, 1) -> right;
+            case MulNode _ when isConstant(right, 1) -> left;
+            case MulNode _ when isConstant(left, 0) || isConstant(right, 0) -> constant(node, 0);
+            // dividing by one never traps
+            case DivNode _ when isConstant(right, 1) -> left;
+            case ModNode _ when isConstant(right, 1) -> constant(node, 0);
+            default -> node;
+        };
+    }
+
+    private static Node fold(BinaryOperationNode node, int left, int right) {
+        return switch (node) {
+            case AddNode _ -> constant(node, left + right);
+            case SubNode _ -> constant(node, left - right);
+            case MulNode _ -> constant(node, left * right);
+            case DivNode _ when !traps(left, right) -> constant(node, left / right);
+            case ModNode _ when !traps(left, right) -> constant(node, left % right);
+            // keep the trap for runtime
+            case DivNode _, ModNode _ -> node;
+        };
+    }
+
+    private static boolean traps(int dividend, int divisor) {
+        return divisor == 0 || (dividend == Integer.MIN_VALUE && divisor == -1);
+    }
+
+    private static boolean isConstant(Node node, int value) {
+        return node instanceof ConstIntNode constant && constant.value() == value;
+    }
+
+    private static Node constant(Node node, int value) {
+        return new ConstIntNode(node.graph().startBlock(), value);
+    }
+}
@@ -0,0 +1,111 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.util.NodeSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/// Removes the nodes that are not needed to compute the end block, and compacts the graph.
+///
+/// Nodes that were rejected by value numbering, replaced by simplifications or removed phis
+/// are still users of their inputs. A mark phase finds the live nodes by following inputs and
+/// blocks from the end block. The sweep phase removes the inputs of every dead node reachable
+/// through def-use edges, so live nodes only have live successors afterwards.
+///
+/// Finally, the live nodes get new dense ids in [postorder][IrGraph#postorder()], each block
+/// right before its first node, so side tables of later passes are small and mostly accessed in order.
+public final class DeadNodeElimination implements GraphPass {
+
+    /// {@return whether a dead node was still a user of a live node, or the node count was reduced}
+    @Override
+    public boolean run(IrGraph graph) {
+        int nodeCount = graph.nodeCount();
+        NodeSet live = new NodeSet();
+        List<Node> liveNodes = mark(graph, live);
+        boolean changed = sweep(liveNodes, live);
+        renumber(graph, liveNodes);
+        return changed || graph.nodeCount() < nodeCount;
+    }
+
+    private static List<Node> mark(IrGraph graph, NodeSet live) {
+        List<Node> liveNodes = new ArrayList<>();
+        List<Node> worklist = new ArrayList<>();
+        live.add(graph.endBlock());
+        worklist.add(graph.endBlock());
+        live.add(graph.startBlock());
+        worklist.add(graph.startBlock());
+        while (!worklist.isEmpty()) {
+            Node node = worklist.removeLast();
+            liveNodes.add(node);
+            if (live.add(node.block())) {
+                worklist.add(node.block());
+            }
+            for (int i = 0; i < node.predecessorCount(); i++) {
+                Node predecessor = node.predecessor(i);
+                if (live.add(predecessor)) {
+                    worklist.add(predecessor);
+                }
+            }
+        }
+        return liveNodes;
+    }
+
+    private static boolean sweep(List<Node> liveNodes, NodeSet live) {
+        // users of dead nodes are dead as well, inputs might still be live
+        NodeSet dead = new NodeSet();
+        List<Node> deadNodes = new ArrayList<>();
+        for (Node node : liveNodes) {
+            collectDeadSuccessors(node, live, dead, deadNodes);
+        }
+        for (int i = 0; i < deadNodes.size(); i++) {
+            Node node = deadNodes.get(i);
+            collectDeadSuccessors(node, live, dead, deadNodes);
+            for (int j = 0; j < node.predecessorCount(); j++) {
+                Node predecessor = node.predecessor(j);
+                if (!live.contains(predecessor) && dead.add(predecessor)) {
+                    deadNodes.add(predecessor);
+                }
+            }
+        }
+        for (Node node : deadNodes) {
+            node.removeAllPredecessors();
+        }
+        for (Node node : liveNodes) {
+            node.trimToSize();
+        }
+        return !deadNodes.isEmpty();
+    }
+
+    private static void collectDeadSuccessors(Node node, NodeSet live, NodeSet dead, List<Node> deadNodes) {
+        for (int i = 0; i < node.successorCount(); i++) {
+            Node successor = node.successor(i);
+            if (!live.contains(successor) && dead.add(successor)) {
+                deadNodes.add(successor);
+            }
+        }
+    }
+
+    private static void renumber(IrGraph graph, List<Node> liveNodes) {
+        NodeSet numbered = new NodeSet();
+        List<Node> order = new ArrayList<>(liveNodes.size());
+        for (Node node : graph.postorder()) {
+            Block block = node.block();
+            if (numbered.add(block)) {
+                order.add(block);
+            }
+            if (numbered.add(node)) {
+                order.add(node);
+            }
+        }
+        // nodes only reachable through blocks, and the start block if it has no live nodes
+        for (Node node : liveNodes) {
+            if (numbered.add(node)) {
+                order.add(node);
+            }
+        }
+        graph.renumber(order);
+    }
+}
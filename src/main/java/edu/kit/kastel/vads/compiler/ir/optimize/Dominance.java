@@ -0,0 +1,179 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.util.NodeIntMap;
+import edu.kit.kastel.vads.compiler.ir.util.NodeMap;
+import edu.kit.kastel.vads.compiler.ir.util.NodeSet;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/// Answers dominance queries between blocks of a graph that is still under construction.
+///
+/// The immediate dominators are computed when first needed, and computed again when a block got
+/// more predecessors since. A computation covers the queried block and all blocks it can be reached from,
+/// using the iterative algorithm by Cooper, Harvey and Kennedy in "A Simple, Fast Dominance Algorithm".
+/// It does not depend on the order blocks get their predecessors, back edges are handled like all other edges.
+/// Blocks that cannot be reached from the start block only dominate themselves.
+final class Dominance {
+    private static final int UNKNOWN = -1;
+
+    private final IrGraph graph;
+    private final Block startBlock;
+    private final NodeMap<Block> immediateDominators;
+    // the depth in the dominator tree of each block, or UNKNOWN
+    private final NodeIntMap depths;
+    // the number of predecessors each block had when its dominator was computed
+    private final NodeIntMap predecessorCounts;
+
+    Dominance(Block startBlock) {
+        this.graph = startBlock.graph();
+        this.startBlock = startBlock;
+        this.immediateDominators = new NodeMap<>(this.graph);
+        this.depths = new NodeIntMap(this.graph, UNKNOWN);
+        this.predecessorCounts = new NodeIntMap(this.graph, UNKNOWN);
+    }
+
+    /// {@return whether every path from the start block to `block` passes `dominator`}
+    /// Every block dominates itself.
+    boolean dominates(Block dominator, Block block) {
+        int dominatorDepth = depth(dominator);
+        @Nullable Block current = block;
+        for (int depth = depth(block); depth > dominatorDepth; depth--) {
+            current = this.immediateDominators.get(current);
+            if (current == null) {
+                return false;
+            }
+        }
+        return current == dominator;
+    }
+
+    private int depth(Block block) {
+        if (this.depths.get(block) == UNKNOWN || this.predecessorCounts.get(block) != block.predecessorCount()) {
+            compute(block);
+        }
+        return this.depths.get(block);
+    }
+
+    /// Computes the immediate dominators of `block` and all blocks it can be reached from.
+    private void compute(Block block) {
+        List<Block> order = reversePostorder(block);
+        NodeIntMap indices = new NodeIntMap(this.graph, UNKNOWN);
+        for (int i = 0; i < order.size(); i++) {
+            indices.put(order.get(i), i);
+        }
+        NodeSet processed = new NodeSet();
+        processed.add(this.startBlock);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Block current : order) {
+                if (current == this.startBlock) {
+                    continue;
+                }
+                @Nullable Block dominator = null;
+                for (int i = 0; i < current.predecessorCount(); i++) {
+                    Block predecessor = current.predecessor(i).block();
+                    // predecessors not processed yet are reached through back edges
+                    if (!processed.contains(predecessor)) {
+                        continue;
+                    }
+                    dominator = dominator == null ? predecessor : intersect(dominator, predecessor, indices);
+                }
+                if (dominator != null && (processed.add(current) || this.immediateDominators.get(current) != dominator)) {
+                    this.immediateDominators.put(current, dominator);
+                    changed = true;
+                }
+            }
+        }
+        this.depths.put(this.startBlock, 0);
+        this.predecessorCounts.put(this.startBlock, this.startBlock.predecessorCount());
+        for (Block current : order) {
+            if (current != this.startBlock) {
+                this.depths.put(current, this.depths.get(immediateDominator(current)) + 1);
+                this.predecessorCounts.put(current, current.predecessorCount());
+            }
+        }
+        if (!processed.contains(block)) {
+            // not reachable from the start block
+            this.depths.put(block, 0);
+            this.predecessorCounts.put(block, block.predecessorCount());
+        }
+    }
+
+    /// {@return the nearest common dominator of `a` and `b` according to the current immediate dominators}
+    private Block intersect(Block a, Block b, NodeIntMap indices) {
+        while (a != b) {
+            while (indices.get(a) > indices.get(b)) {
+                a = immediateDominator(a);
+            }
+            while (indices.get(b) > indices.get(a)) {
+                b = immediateDominator(b);
+            }
+        }
+        return a;
+    }
+
+    private Block immediateDominator(Block block) {
+        Block dominator = this.immediateDominators.get(block);
+        assert dominator != null : "dominator of " + block + " is not computed";
+        return dominator;
+    }
+
+    /// {@return the blocks on paths from the start block to `target` in reverse postorder, or an empty list}
+    /// This walks the predecessors from `target` first, as blocks don't know their successors.
+    private List<Block> reversePostorder(Block target) {
+        NodeMap<List<Block>> successors = new NodeMap<>(this.graph);
+        NodeSet reaching = new NodeSet();
+        List<Block> worklist = new ArrayList<>();
+        reaching.add(target);
+        worklist.add(target);
+        while (!worklist.isEmpty()) {
+            Block block = worklist.removeLast();
+            for (int i = 0; i < block.predecessorCount(); i++) {
+                Block predecessor = block.predecessor(i).block();
+                List<Block> predecessorSuccessors = successors.get(predecessor);
+                if (predecessorSuccessors == null) {
+                    predecessorSuccessors = new ArrayList<>();
+                    successors.put(predecessor, predecessorSuccessors);
+                }
+                predecessorSuccessors.add(block);
+                if (reaching.add(predecessor)) {
+                    worklist.add(predecessor);
+                }
+            }
+        }
+        List<Block> postorder = new ArrayList<>();
+        if (!reaching.contains(this.startBlock)) {
+            return postorder;
+        }
+        // depth first search from the start block, the stack holds each block and its next successor
+        NodeSet visited = new NodeSet();
+        List<Block> stack = new ArrayList<>();
+        List<Integer> nextSuccessor = new ArrayList<>();
+        visited.add(this.startBlock);
+        stack.add(this.startBlock);
+        nextSuccessor.add(0);
+        while (!stack.isEmpty()) {
+            int top = stack.size() - 1;
+            Block block = stack.get(top);
+            List<Block> blockSuccessors = successors.get(block);
+            int next = nextSuccessor.get(top);
+            if (blockSuccessors != null && next < blockSuccessors.size()) {
+                nextSuccessor.set(top, next + 1);
+                Block successor = blockSuccessors.get(next);
+                if (visited.add(successor)) {
+                    stack.add(successor);
+                    nextSuccessor.add(0);
+                }
+                continue;
+            }
+            stack.removeLast();
+            nextSuccessor.removeLast();
+            postorder.add(block);
+        }
+        return postorder.reversed();
+    }
+}
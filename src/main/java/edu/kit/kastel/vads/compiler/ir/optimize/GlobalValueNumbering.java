@@ -0,0 +1,121 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode.SimpleProjectionInfo;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/// Replaces a node with a congruent node whose block dominates the block of the new node.
+///
+/// Nodes are not compared by [Node#equals(Object)], which takes the block into account,
+/// but by their operation and inputs only.
+/// Phis, projections and control flow nodes are never replaced.
+///
+/// A [DivNode] or [ModNode] is congruent to an earlier one with the same operands, even if its
+/// side effect input differs: if the dominating division did not trap, the new one cannot trap
+/// either. It is replaced by the [result projection][SimpleProjectionInfo#RESULT] of the earlier
+/// node, so the side effect chain simply continues without the dropped node.
+///
+/// As this runs while the graph is constructed, a block must have all its forward predecessors
+/// once nodes are created in it, only back edges may be added later. Otherwise a replacement could
+/// be based on a dominance relation that does not hold in the finished graph.
+public class GlobalValueNumbering implements Optimizer {
+    private final Map<ValueKey, List<Node>> knownNodes = new HashMap<>();
+    private @Nullable Dominance dominance;
+
+    @Override
+    public Node transform(Node node) {
+        ValueKey key = ValueKey.of(node);
+        if (key == null) {
+            return node;
+        }
+        List<Node> candidates = this.knownNodes.computeIfAbsent(key, _ -> new ArrayList<>());
+        for (Node candidate : candidates) {
+            if (candidate == node) {
+                // transformed before, a div or mod must not be replaced by its own result
+                return node;
+            }
+            if (dominance(node).dominates(candidate.block(), node.block())) {
+                return replacement(node, candidate);
+            }
+        }
+        candidates.add(node);
+        return node;
+    }
+
+    private Dominance dominance(Node node) {
+        if (this.dominance == null) {
+            this.dominance = new Dominance(node.graph().startBlock());
+        }
+        return this.dominance;
+    }
+
+    private static Node replacement(Node node, Node candidate) {
+        if (!(node instanceof DivNode || node instanceof ModNode)) {
+            return candidate;
+        }
+        for (int i = 0; i < candidate.successorCount(); i++) {
+            if (candidate.successor(i) instanceof ProjNode proj
+                && proj.projectionInfo() == SimpleProjectionInfo.RESULT) {
+                return proj;
+            }
+        }
+        return new ProjNode(candidate.block(), candidate, SimpleProjectionInfo.RESULT);
+    }
+
+    /// Identifies a value independent of the block computing it.
+    private record ValueKey(Class<? extends Node> kind, @Nullable Node left, @Nullable Node right, int value) {
+
+        static @Nullable ValueKey of(Node node) {
+            return switch (node) {
+                case ConstIntNode constant -> new ValueKey(ConstIntNode.class, null, null, constant.value());
+                case AddNode _, MulNode _ -> {
+                    // commutative operation: op(x, y) and op(y, x) get the same key
+                    Node left = node.predecessor(BinaryOperationNode.LEFT);
+                    Node right = node.predecessor(BinaryOperationNode.RIGHT);
+                    yield left.id() <= right.id()
+                        ? new ValueKey(node.getClass(), left, right, 0)
+                        : new ValueKey(node.getClass(), right, left, 0);
+                }
+                case BinaryOperationNode _ -> new ValueKey(
+                    node.getClass(),
+                    node.predecessor(BinaryOperationNode.LEFT),
+                    node.predecessor(BinaryOperationNode.RIGHT),
+                    0
+                );
+                default -> null;
+            };
+        }
+
+        // inputs are compared by identity, like in Node#equals
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ValueKey other
+                && this.kind == other.kind
+                && this.left == other.left
+                && this.right == other.right
+                && this.value == other.value;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = this.kind.hashCode();
+            h = 31 * h + System.identityHashCode(this.left);
+            h = 31 * h + System.identityHashCode(this.right);
+            return 31 * h + this.value;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+
+/// A pass that optimizes a whole graph after its construction, see [PassManager].
+public interface GraphPass {
+
+    /// {@return whether the graph was changed}
+    boolean run(IrGraph graph);
+
+    /// {@return the name of this pass, used in statistics}
+    default String name() {
+        return getClass().getSimpleName();
+    }
+}
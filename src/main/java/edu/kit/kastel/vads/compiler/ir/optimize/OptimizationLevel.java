@@ -0,0 +1,58 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+
+/// Presets that trade compile time against the quality of the generated code.
+/// Each level defines whether [hash-consing][#hashConsing()] and which [Optimizer] are applied during
+/// SSA construction, and the passes run afterwards.
+public enum OptimizationLevel {
+    /// Keeps every operation of the source: no hash-consing, no optimizer and no passes.
+    O0,
+    /// Shares identical operations, folds constants and numbers values during construction,
+    /// and removes redundant phis once.
+    O1,
+    /// Like [#O1], and rewrites the whole graph with peephole optimizations until nothing changes.
+    O2;
+
+    private static final int MAX_ITERATIONS = 8;
+
+    /// {@return whether identical operations and constants in a block are shared during construction}
+    public boolean hashConsing() {
+        return this != O0;
+    }
+
+    /// {@return a new optimizer for the construction of one graph}
+    public Optimizer newOptimizer() {
+        return switch (this) {
+            case O0 -> node -> node;
+            case O1, O2 -> new ConstantFolding().andThen(new GlobalValueNumbering());
+        };
+    }
+
+    /// {@return a new pass manager to run on the constructed graphs}
+    public PassManager newPassManager() {
+        return switch (this) {
+            case O0 -> new PassManager(List.of(), 0);
+            case O1 -> new PassManager(List.of(new RedundantPhiElimination()), 1);
+            case O2 -> new PassManager(
+                List.of(
+                    new RedundantPhiElimination(),
+                    new PeepholeOptimization(O2::newOptimizer)
+                ),
+                MAX_ITERATIONS
+            );
+        };
+    }
+
+    /// {@return the level selected by a command line option like `-O1`, or `null`}
+    public static @Nullable OptimizationLevel fromOption(String option) {
+        for (OptimizationLevel level : values()) {
+            if (option.equals("-" + level.name())) {
+                return level;
+            }
+        }
+        return null;
+    }
+}
@@ -6,4 +6,9 @@ import edu.kit.kastel.vads.compiler.ir.node.Node;
 public interface Optimizer {
 
     Node transform(Node node);
+
+    /// {@return an optimizer that transforms a node with this optimizer, and the result with `next`}
+    default Optimizer andThen(Optimizer next) {
+        return node -> next.transform(transform(node));
+    }
 }
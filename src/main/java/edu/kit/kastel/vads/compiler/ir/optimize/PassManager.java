@@ -0,0 +1,103 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/// Runs a pipeline of [GraphPass]es on graphs and records statistics about each pass.
+///
+/// The passes run in the given order, repeatedly until no pass changes the graph anymore, but at
+/// most `maxIterations` times. Before the first pass and after each pass that changed the graph,
+/// [DeadNodeElimination] removes the nodes that became unused.
+///
+/// The statistics are summed over all graphs this pass manager was run on:
+/// the number of runs, how many of them changed the graph, the wall time and the change of the
+/// [node count][IrGraph#nodeCount()]. Passes add nodes, only the dead node elimination removes them,
+/// it is counted as its own pass.
+public final class PassManager {
+    private final List<GraphPass> passes;
+    private final int maxIterations;
+    private final GraphPass cleanup = new DeadNodeElimination();
+    // one per pass, and the last one for the cleanup
+    private final Statistics[] statistics;
+
+    public PassManager(List<GraphPass> passes, int maxIterations) {
+        this.passes = List.copyOf(passes);
+        this.maxIterations = maxIterations;
+        this.statistics = new Statistics[this.passes.size() + 1];
+        for (int i = 0; i < this.passes.size(); i++) {
+            this.statistics[i] = new Statistics(this.passes.get(i).name());
+        }
+        this.statistics[this.passes.size()] = new Statistics(this.cleanup.name());
+    }
+
+    public void run(IrGraph graph) {
+        if (this.passes.isEmpty()) {
+            return;
+        }
+        // the optimizations during construction leave unused nodes behind as well
+        runPass(this.cleanup, this.statistics[this.passes.size()], graph);
+        boolean changed = true;
+        for (int iteration = 0; changed && iteration < this.maxIterations; iteration++) {
+            changed = false;
+            for (int i = 0; i < this.passes.size(); i++) {
+                if (runPass(this.passes.get(i), this.statistics[i], graph)) {
+                    changed = true;
+                    runPass(this.cleanup, this.statistics[this.passes.size()], graph);
+                }
+            }
+        }
+    }
+
+    private static boolean runPass(GraphPass pass, Statistics statistics, IrGraph graph) {
+        int nodesBefore = graph.nodeCount();
+        long start = System.nanoTime();
+        boolean changed = pass.run(graph);
+        statistics.nanos += System.nanoTime() - start;
+        statistics.runs++;
+        if (changed) {
+            statistics.changes++;
+        }
+        statistics.nodeDelta += graph.nodeCount() - nodesBefore;
+        return changed;
+    }
+
+    /// {@return the statistics of each pass that ran, in pipeline order, followed by the dead node elimination}
+    public List<PassStatistics> statistics() {
+        List<PassStatistics> result = new ArrayList<>(this.statistics.length);
+        for (Statistics s : this.statistics) {
+            if (s.runs == 0) {
+                continue;
+            }
+            result.add(new PassStatistics(s.name, s.runs, s.changes, s.nanos, s.nodeDelta));
+        }
+        return result;
+    }
+
+    /// @param changes the number of runs that changed the graph
+    /// @param nanos the wall time of all runs
+    /// @param nodeDelta the change of the node count by all runs
+    public record PassStatistics(String pass, int runs, int changes, long nanos, long nodeDelta) {
+
+        @Override
+        public String toString() {
+            return String.format(
+                "%-24s %4d runs %4d changed %10.3f ms %+8d nodes",
+                this.pass, this.runs, this.changes, this.nanos / 1e6, this.nodeDelta
+            );
+        }
+    }
+
+    private static final class Statistics {
+        private final String name;
+        private int runs;
+        private int changes;
+        private long nanos;
+        private long nodeDelta;
+
+        Statistics(String name) {
+            this.name = name;
+        }
+    }
+}
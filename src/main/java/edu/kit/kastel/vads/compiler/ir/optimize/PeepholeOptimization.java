@@ -0,0 +1,94 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode.SimpleProjectionInfo;
+import edu.kit.kastel.vads.compiler.ir.util.NodeSet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Supplier;
+
+/// Rewrites a finished graph with peephole optimizations until nothing changes.
+///
+/// The peephole step, called idealize here, is an [Optimizer]: it returns an equivalent node
+/// for a node, or the node itself. All nodes start on a worklist, inputs before their users.
+/// When a node is replaced, its users get the replacement as input through
+/// [Node#replaceAllUsesWith(Node)] and are put on the worklist again, as they might be
+/// simplified further now. So each rewrite only causes work for the nodes it affects, and
+/// rewrites compose without sweeping over the whole graph again.
+public final class PeepholeOptimization implements GraphPass {
+    private final Supplier<Optimizer> idealizers;
+
+    /// @param idealizers creates a fresh optimizer for each run, as optimizers may keep state
+    public PeepholeOptimization(Supplier<Optimizer> idealizers) {
+        this.idealizers = idealizers;
+    }
+
+    @Override
+    public boolean run(IrGraph graph) {
+        Optimizer idealizer = this.idealizers.get();
+        Deque<Node> worklist = new ArrayDeque<>(graph.postorder());
+        NodeSet queued = new NodeSet();
+        for (Node node : worklist) {
+            queued.add(node);
+        }
+        boolean changed = false;
+        Node node;
+        while ((node = worklist.pollFirst()) != null) {
+            queued.remove(node);
+            if (node.successorCount() == 0) {
+                // replaced before, or the end block
+                continue;
+            }
+            Node replacement = idealizer.transform(node);
+            if (replacement == node) {
+                continue;
+            }
+            for (Node user : replace(node, replacement)) {
+                if (queued.add(user)) {
+                    worklist.addLast(user);
+                }
+            }
+            changed = true;
+        }
+        return changed;
+    }
+
+    /// Replaces all uses of `node`.
+    /// {@return the nodes that got a new input}
+    private static List<Node> replace(Node node, Node replacement) {
+        List<Node> users = new ArrayList<>();
+        if (!(node instanceof DivNode || node instanceof ModNode)) {
+            collectUsers(node, users);
+            node.replaceAllUsesWith(replacement);
+            return users;
+        }
+        // div and mod are only used through projections,
+        // the side effect chain continues with the side effect of the replaced node
+        Node sideEffect = node.predecessor(DivNode.SIDE_EFFECT);
+        // a projection of the node itself would be detached below
+        assert replacement.predecessorCount() == 0 || replacement.predecessor(0) != node
+            : node + " cannot be replaced by its own projection " + replacement;
+        while (node.successorCount() > 0) {
+            ProjNode proj = (ProjNode) node.successor(node.successorCount() - 1);
+            collectUsers(proj, users);
+            proj.replaceAllUsesWith(
+                proj.projectionInfo() == SimpleProjectionInfo.SIDE_EFFECT ? sideEffect : replacement
+            );
+            proj.removeAllPredecessors();
+        }
+        return users;
+    }
+
+    private static void collectUsers(Node node, List<Node> users) {
+        for (int i = 0; i < node.successorCount(); i++) {
+            users.add(node.successor(i));
+        }
+    }
+}
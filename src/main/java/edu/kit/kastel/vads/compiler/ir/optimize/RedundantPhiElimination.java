@@ -0,0 +1,155 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.Phi;
+import edu.kit.kastel.vads.compiler.ir.util.NodeIntMap;
+import edu.kit.kastel.vads.compiler.ir.util.NodeSet;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/// Removes cycles of phis that only merge a single value from outside the cycle,
+/// as described by Braun et al. in "Simple and Efficient Construction of Static Single Assignment Form".
+///
+/// Trivial phis are already removed during construction, but a group of phis
+/// referencing each other, e.g. for a variable that is not changed in nested loops,
+/// can only be recognized as a whole. The phis are split into strongly connected components
+/// with respect to their phi operands. Each component that has exactly one operand
+/// from outside is replaced by that operand, otherwise the phis only referencing phis of
+/// the same component are examined again.
+public final class RedundantPhiElimination implements GraphPass {
+
+    @Override
+    public boolean run(IrGraph graph) {
+        List<Phi> phis = new ArrayList<>();
+        for (Node node : graph.postorder()) {
+            if (node instanceof Phi phi) {
+                phis.add(phi);
+            }
+        }
+        return removeRedundantPhis(graph, phis);
+    }
+
+    private static boolean removeRedundantPhis(IrGraph graph, List<Phi> phis) {
+        boolean changed = false;
+        // components are found operands first, so replaced operands are seen by their users
+        for (List<Phi> component : stronglyConnectedComponents(graph, phis)) {
+            changed |= processComponent(graph, component);
+        }
+        return changed;
+    }
+
+    private static boolean processComponent(IrGraph graph, List<Phi> component) {
+        if (component.size() == 1) {
+            // a single phi is trivial or not, which was decided during construction
+            return false;
+        }
+        NodeSet members = new NodeSet();
+        for (Phi phi : component) {
+            members.add(phi);
+        }
+        List<Phi> inner = new ArrayList<>();
+        @Nullable Node outerOperand = null;
+        boolean multipleOuterOperands = false;
+        for (Phi phi : component) {
+            boolean isInner = true;
+            for (int i = 0; i < phi.predecessorCount(); i++) {
+                Node operand = phi.predecessor(i);
+                if (members.contains(operand)) {
+                    continue;
+                }
+                isInner = false;
+                if (outerOperand == null) {
+                    outerOperand = operand;
+                } else if (outerOperand != operand) {
+                    multipleOuterOperands = true;
+                }
+            }
+            if (isInner) {
+                inner.add(phi);
+            }
+        }
+        if (outerOperand == null) {
+            // unreachable cycle, there is no value to replace it with
+            return false;
+        }
+        if (!multipleOuterOperands) {
+            for (Phi phi : component) {
+                phi.replaceAllUsesWith(outerOperand);
+            }
+            return true;
+        }
+        return !inner.isEmpty() && removeRedundantPhis(graph, inner);
+    }
+
+    /// Tarjan's algorithm on the subgraph induced by `phis`, without recursion.
+    /// {@return the components, each one after all components it has operands in}
+    private static List<List<Phi>> stronglyConnectedComponents(IrGraph graph, List<Phi> phis) {
+        NodeSet candidates = new NodeSet();
+        for (Phi phi : phis) {
+            candidates.add(phi);
+        }
+        NodeIntMap indices = new NodeIntMap(graph, -1);
+        NodeIntMap lowLinks = new NodeIntMap(graph, -1);
+        NodeSet onStack = new NodeSet();
+        List<Phi> stack = new ArrayList<>();
+        // the phis currently being visited, and the index of the next operand of each of them
+        List<Phi> path = new ArrayList<>();
+        List<Integer> nextOperand = new ArrayList<>();
+        List<List<Phi>> components = new ArrayList<>();
+        int index = 0;
+        for (Phi root : phis) {
+            if (indices.get(root) >= 0) {
+                continue;
+            }
+            indices.put(root, index);
+            lowLinks.put(root, index++);
+            stack.add(root);
+            onStack.add(root);
+            path.add(root);
+            nextOperand.add(0);
+            while (!path.isEmpty()) {
+                int top = path.size() - 1;
+                Phi phi = path.get(top);
+                int operandIndex = nextOperand.get(top);
+                if (operandIndex < phi.predecessorCount()) {
+                    nextOperand.set(top, operandIndex + 1);
+                    Node operand = phi.predecessor(operandIndex);
+                    if (!(operand instanceof Phi next) || !candidates.contains(next)) {
+                        continue;
+                    }
+                    if (indices.get(next) < 0) {
+                        indices.put(next, index);
+                        lowLinks.put(next, index++);
+                        stack.add(next);
+                        onStack.add(next);
+                        path.add(next);
+                        nextOperand.add(0);
+                    } else if (onStack.contains(next)) {
+                        lowLinks.put(phi, Math.min(lowLinks.get(phi), indices.get(next)));
+                    }
+                    continue;
+                }
+                path.removeLast();
+                nextOperand.removeLast();
+                if (!path.isEmpty()) {
+                    Phi parent = path.getLast();
+                    lowLinks.put(parent, Math.min(lowLinks.get(parent), lowLinks.get(phi)));
+                }
+                if (lowLinks.get(phi) == indices.get(phi)) {
+                    List<Phi> component = new ArrayList<>();
+                    Phi member;
+                    do {
+                        member = stack.removeLast();
+                        onStack.remove(member);
+                        component.add(member);
+                    } while (member != phi);
+                    components.add(component);
+                }
+            }
+        }
+        return components;
+    }
+}
@@ -8,7 +8,6 @@ import edu.kit.kastel.vads.compiler.ir.node.Node;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,39 +17,34 @@ import java.util.Set;
 public class GraphVizPrinter {
     private final Map<Block, Set<Node>> clusters = new HashMap<>();
     private final List<Edge> edges = new ArrayList<>();
-    private final Map<Node, Integer> ids = new HashMap<>();
+    private final NodeIntMap ids;
     private final StringBuilder builder = new StringBuilder();
     private final IrGraph graph;
     private int counter = 0;
 
     public GraphVizPrinter(IrGraph graph) {
         this.graph = graph;
+        this.ids = new NodeIntMap(graph, -1);
     }
 
     public static String print(IrGraph graph) {
         GraphVizPrinter printer = new GraphVizPrinter(graph);
-        printer.prepare(graph.endBlock(), new HashSet<>());
+        printer.prepare();
         printer.print();
         return printer.builder.toString();
     }
 
-    private void prepare(Node node, Set<Node> seen) {
-        if (!seen.add(node)) {
-            return;
-        }
-
-        if (!(node instanceof Block)) {
-            this.clusters.computeIfAbsent(node.block(), _ -> Collections.newSetFromMap(new IdentityHashMap<>()))
-                .add(node);
-        }
-        int idx = 0;
-        for (Node predecessor : node.predecessors()) {
-            this.edges.add(new Edge(predecessor, node, idx++));
-            prepare(predecessor, seen);
-        }
-        if (node == this.graph.endBlock()) {
-            this.clusters.put(this.graph.endBlock(), Set.of());
+    private void prepare() {
+        for (Node node : this.graph.postorder()) {
+            if (!(node instanceof Block)) {
+                this.clusters.computeIfAbsent(node.block(), _ -> Collections.newSetFromMap(new IdentityHashMap<>()))
+                    .add(node);
+            }
+            for (int idx = 0; idx < node.predecessorCount(); idx++) {
+                this.edges.add(new Edge(node.predecessor(idx), node, idx));
+            }
         }
+        this.clusters.put(this.graph.endBlock(), Set.of());
     }
 
     private void print() {
@@ -125,7 +119,12 @@ public class GraphVizPrinter {
     }
 
     private int idFor(Node node) {
-        return this.ids.computeIfAbsent(node, _ -> this.counter++);
+        int id = this.ids.get(node);
+        if (id < 0) {
+            id = this.counter++;
+            this.ids.put(node, id);
+        }
+        return id;
     }
 
     private String nameFor(Node node) {
@@ -0,0 +1,36 @@
+package edu.kit.kastel.vads.compiler.ir.util;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+
+import java.util.Arrays;
+
+/// Maps nodes of one graph to int values, using an int array indexed by [node id][Node#id()].
+/// Nodes without a value are mapped to the `missing` value given on creation.
+public final class NodeIntMap {
+    private final int missing;
+    private int[] values;
+
+    /// Creates a map with room for all nodes currently in `graph`.
+    public NodeIntMap(IrGraph graph, int missing) {
+        this.missing = missing;
+        this.values = new int[graph.nodeCount()];
+        Arrays.fill(this.values, missing);
+    }
+
+    /// {@return the value of `node`, or the missing value}
+    public int get(Node node) {
+        int id = node.id();
+        return id < this.values.length ? this.values[id] : this.missing;
+    }
+
+    public void put(Node node, int value) {
+        int id = node.id();
+        if (id >= this.values.length) {
+            int length = this.values.length;
+            this.values = Arrays.copyOf(this.values, Math.max(id + 1, length * 2));
+            Arrays.fill(this.values, length, this.values.length, this.missing);
+        }
+        this.values[id] = value;
+    }
+}
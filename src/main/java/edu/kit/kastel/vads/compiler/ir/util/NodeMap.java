@@ -0,0 +1,46 @@
+package edu.kit.kastel.vads.compiler.ir.util;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+
+/// Maps nodes of one graph to values, using an array indexed by [node id][Node#id()].
+/// See [NodeIntMap] for int values.
+public final class NodeMap<T> {
+    private @Nullable Object[] values;
+    private int size;
+
+    /// Creates a map with room for all nodes currently in `graph`.
+    public NodeMap(IrGraph graph) {
+        this.values = new Object[graph.nodeCount()];
+    }
+
+    @SuppressWarnings("unchecked")
+    public @Nullable T get(Node node) {
+        int id = node.id();
+        return id < this.values.length ? (T) this.values[id] : null;
+    }
+
+    public boolean containsKey(Node node) {
+        return get(node) != null;
+    }
+
+    /// Associates `value` with `node`, replacing the previous value.
+    public void put(Node node, T value) {
+        int id = node.id();
+        if (id >= this.values.length) {
+            this.values = Arrays.copyOf(this.values, Math.max(id + 1, this.values.length * 2));
+        }
+        if (this.values[id] == null) {
+            this.size++;
+        }
+        this.values[id] = value;
+    }
+
+    /// {@return the number of nodes with a value}
+    public int size() {
+        return this.size;
+    }
+}
@@ -0,0 +1,36 @@
+package edu.kit.kastel.vads.compiler.ir.util;
+
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+
+import java.util.BitSet;
+
+/// A set of nodes of one graph, stored as a bit per [node id][Node#id()].
+public final class NodeSet {
+    private final BitSet bits = new BitSet();
+
+    /// {@return `true` if the node was not contained before}
+    public boolean add(Node node) {
+        if (this.bits.get(node.id())) {
+            return false;
+        }
+        this.bits.set(node.id());
+        return true;
+    }
+
+    public boolean contains(Node node) {
+        return this.bits.get(node.id());
+    }
+
+    /// {@return `true` if the node was contained before}
+    public boolean remove(Node node) {
+        if (!this.bits.get(node.id())) {
+            return false;
+        }
+        this.bits.clear(node.id());
+        return true;
+    }
+
+    public int size() {
+        return this.bits.cardinality();
+    }
+}
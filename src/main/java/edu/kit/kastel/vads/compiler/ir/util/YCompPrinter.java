@@ -14,7 +14,6 @@ import edu.kit.kastel.vads.compiler.ir.node.StartNode;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,38 +26,32 @@ import java.util.stream.IntStream;
 public class YCompPrinter {
 
     private final Map<Block, Set<Node>> clusters = new HashMap<>();
-    private final Map<Node, Integer> ids = new HashMap<>();
+    private final NodeIntMap ids;
     private final IrGraph graph;
     private int nodeCounter = 0;
     private int blockCounter = 0;
 
     public YCompPrinter(IrGraph graph) {
         this.graph = graph;
+        this.ids = new NodeIntMap(graph, -1);
     }
 
-    private void prepare(Node node, Set<Node> seen) {
-        if (!seen.add(node)) {
-            return;
-        }
-
-        if (!(node instanceof Block)) {
-            this.clusters.computeIfAbsent(
-                    node.block(),
-                    _ -> Collections.newSetFromMap(new IdentityHashMap<>())
-                )
-                .add(node);
-        }
-        for (Node predecessor : node.predecessors()) {
-            prepare(predecessor, seen);
-        }
-        if (node == this.graph.endBlock()) {
-            this.clusters.put(this.graph.endBlock(), Set.of());
+    private void prepare() {
+        for (Node node : this.graph.postorder()) {
+            if (!(node instanceof Block)) {
+                this.clusters.computeIfAbsent(
+                        node.block(),
+                        _ -> Collections.newSetFromMap(new IdentityHashMap<>())
+                    )
+                    .add(node);
+            }
         }
+        this.clusters.put(this.graph.endBlock(), Set.of());
     }
 
     public static String print(IrGraph graph) {
         YCompPrinter printer = new YCompPrinter(graph);
-        printer.prepare(graph.endBlock(), new HashSet<>());
+        printer.prepare();
         return printer.dumpGraphAsString();
     }
 
@@ -142,7 +135,7 @@ public class YCompPrinter {
     }
 
     private String formatInputEdges(Node node) {
-        var edges = IntStream.range(0, node.predecessors().size())
+        var edges = IntStream.range(0, node.predecessorCount())
             .mapToObj(
                 idx -> new Edge(
                     node.predecessor(idx), node, idx, edgeColor(node.predecessor(idx), node)
@@ -164,8 +157,8 @@ public class YCompPrinter {
 
     private String formatControlflowEdges(Block block) {
         StringJoiner result = new StringJoiner("\n");
-        List<? extends Node> parents = block.predecessors();
-        for (Node parent : parents) {
+        for (int i = 0; i < block.predecessorCount(); i++) {
+            Node parent = block.predecessor(i);
             if (parent instanceof ReturnNode) {
                 // Return needs no label
                 result.add(formatControlflowEdge(parent, block, ""));
@@ -253,10 +246,12 @@ public class YCompPrinter {
     }
 
     private int idFor(Node node) {
-        if (node instanceof Block block) {
-            return this.ids.computeIfAbsent(block, _ -> this.blockCounter++);
+        int id = this.ids.get(node);
+        if (id < 0) {
+            id = node instanceof Block ? this.blockCounter++ : this.nodeCounter++;
+            this.ids.put(node, id);
         }
-        return this.ids.computeIfAbsent(node, _ -> this.nodeCounter++);
+        return id;
     }
 
     private record Edge(Node src, Node dst, int index, Optional<VcgColor> color) {
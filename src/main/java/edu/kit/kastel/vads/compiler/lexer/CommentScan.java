@@ -0,0 +1,10 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+/// The result of skipping a part of the input as if it was within a multi line comment.
+///
+/// @param closes the offsets comments opened before the part are closed at, the element at index `k`
+///               is the offset after the comment of depth `k + 1` is closed
+/// @param balance the number of comments opened minus the number of comments closed in the part
+/// @param lastOpener the offset of the last comment opener in the part, or `-1`
+record CommentScan(int[] closes, int balance, int lastOpener) {
+}
@@ -1,10 +1,22 @@
 package edu.kit.kastel.vads.compiler.lexer;
 
 import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.parser.symbol.SymbolTable;
+
+/// An identifier, represented by its id in the [SymbolTable#global()] table.
+public record Identifier(int symbol, Span span) implements Token {
+
+    public String value() {
+        return SymbolTable.global().name(symbol());
+    }
 
-public record Identifier(String value, Span span) implements Token {
     @Override
     public String asString() {
         return value();
     }
+
+    @Override
+    public String toString() {
+        return "Identifier[value=" + value() + ", span=" + span() + "]";
+    }
 }
@@ -1,36 +1,237 @@
 package edu.kit.kastel.vads.compiler.lexer;
 
-import edu.kit.kastel.vads.compiler.Position;
+import edu.kit.kastel.vads.compiler.LineMap;
 import edu.kit.kastel.vads.compiler.Span;
 import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
 import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
+import edu.kit.kastel.vads.compiler.parser.symbol.SymbolTable;
 import org.jspecify.annotations.Nullable;
 
-import java.util.Optional;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
+/// The lexer operates on bytes rather than on decoded characters, every byte is treated as one character.
+/// The language only consists of ASCII characters, each byte of a non-ASCII character is an error token
+/// of its own, with the byte as its only, Latin-1 interpreted, character.
+/// The text of numbers is only copied out of the input when a token object is created for them,
+/// so tokens and trees never reference the input itself.
+/// Identifiers are interned into the [SymbolTable#global()] table while lexing, they stay there for the
+/// lifetime of the process.
+/// Spans only store byte offsets, the start of each line is recorded in a [LineMap] to resolve them when needed.
+///
+/// Tokens can either be retrieved as objects, or be added to a [TokenBuffer] without creating any objects.
 public class Lexer {
-    private final String source;
+    private static final int INITIAL_BUFFER_CAPACITY = 1024;
+    private static final long MAX_HEX_LITERAL = 0xFFFF_FFFFL;
+    private static final long MAX_DECIMAL_LITERAL = 1L << 31;
+    private static final long LOW_BITS = 0x0101_0101_0101_0101L;
+    private static final long HIGH_BITS = 0x8080_8080_8080_8080L;
+    // bits of the character classes, a character can be in multiple classes
+    private static final byte IDENTIFIER = 1;
+    private static final byte NUMERIC = 1 << 1;
+    private static final byte HEX = 1 << 2;
+    private static final byte COMMENT_SPECIAL = 1 << 3;
+    private static final byte[] CHAR_CLASSES = charClasses();
+    private final ByteBuffer source;
+    private final int length;
+    // lexing stops at the limit, it is only smaller than the length when lexing a chunk of the input
+    private final int limit;
+    private final SymbolTable symbols = SymbolTable.global();
+    private final LineMap lines;
     private int pos;
-    private int lineStart;
-    private int line;
+    // the token found by the last call to scan()
+    private TokenKind kind = TokenKind.ERROR;
+    private long subtype;
+    private int tokenStart;
+    private int tokenLength;
+    // the state of a multi line comment the limit was reached in
+    private int commentDepth;
+    private int commentStart = -1;
 
-    private Lexer(String source) {
+    private Lexer(ByteBuffer source) {
+        this(source, new LineMap(), 0, source.limit());
+    }
+
+    Lexer(ByteBuffer source, LineMap lines, int pos, int limit) {
         this.source = source;
+        this.length = source.limit();
+        this.limit = limit;
+        this.lines = lines;
+        this.pos = pos;
     }
 
+    private static byte[] charClasses() {
+        byte[] classes = new byte[256];
+        for (int c = 0; c < classes.length; c++) {
+            boolean numeric = c >= '0' && c <= '9';
+            boolean letter = c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+            if (numeric || letter || c == '_') {
+                classes[c] |= IDENTIFIER;
+            }
+            if (numeric) {
+                classes[c] |= NUMERIC;
+            }
+            if (numeric || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F') {
+                classes[c] |= HEX;
+            }
+            if (c == '*' || c == '/' || c == '\n' || c == '\r') {
+                classes[c] |= COMMENT_SPECIAL;
+            }
+        }
+        return classes;
+    }
+
+    /// Creates a lexer for the UTF-8 encoding of the given string.
+    /// Offsets of spans are byte offsets into this encoding, non-ASCII characters result in
+    /// one error token per byte.
     public static Lexer forString(String source) {
-        return new Lexer(source);
+        return new Lexer(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /// Creates a lexer that directly operates on the memory-mapped content of the given file.
+    /// The file is expected to be ASCII-encoded, every byte is treated as one character.
+    public static Lexer forFile(Path file) throws IOException {
+        return new Lexer(map(file));
     }
 
-    public Optional<Token> nextToken() {
-        ErrorToken error = skipWhitespace();
-        if (error != null) {
-            return Optional.of(error);
+    static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("file " + file + " is too large to be mapped");
+            }
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
         }
-        if (this.pos >= this.source.length()) {
-            return Optional.empty();
+    }
+
+    /// {@return the next token, or `null` if the end of the input is reached}
+    public @Nullable Token nextToken() {
+        if (!scan()) {
+            return null;
+        }
+        Span span = new Span.OffsetSpan(this.lines, this.tokenStart, this.tokenStart + this.tokenLength);
+        return TokenBuffer.token(this.source, this.kind, this.subtype, this.tokenStart, this.tokenLength, span);
+    }
+
+    /// Appends the next token to the given buffer without creating a [Token] object.
+    /// @param tokens a buffer created by [#newBuffer(int)] of this lexer
+    /// {@return `false` if the end of the input is reached}
+    public boolean nextToken(TokenBuffer tokens) {
+        if (!scan()) {
+            return false;
+        }
+        tokens.add(this.kind, this.subtype, this.tokenStart, this.tokenLength);
+        return true;
+    }
+
+    /// {@return a buffer containing all remaining tokens}
+    public TokenBuffer lexAll() {
+        TokenBuffer tokens = newBuffer(INITIAL_BUFFER_CAPACITY);
+        while (nextToken(tokens)) {
+            // keep going
+        }
+        return tokens;
+    }
+
+    /// Lexes an edited source, reusing the tokens of the source before the edit.
+    ///
+    /// Lexing restarts at the last token starting before the edit, the start of a token does not depend
+    /// on any input before it. It stops as soon as it finds a token after the edit that is also contained
+    /// in the previous tokens, all following tokens are the same as before.
+    /// Line starts are reused the same way, and spans created from `previous` afterwards resolve to their
+    /// positions in the edited source.
+    ///
+    /// Tokens directly adjacent to the edit are always considered changed, so that an offset of an
+    /// unchanged token cannot refer to both sides of the edit.
+    ///
+    /// @param previous all tokens of the source before the edit, no tokens may have been discarded
+    /// @param source the edited source
+    /// @param offset the offset the edit starts at
+    /// @param removedLength the number of bytes removed at `offset`
+    /// @param insertedLength the number of bytes inserted at `offset`
+    public static TokenEdit relex(
+        TokenBuffer previous,
+        ByteBuffer source,
+        int offset,
+        int removedLength,
+        int insertedLength
+    ) {
+        int delta = insertedLength - removedLength;
+        int previousEditEnd = offset + removedLength;
+        int previousSize = previous.size();
+        int before = previous.countStartingBefore(offset);
+        if (before > 0 && previous.isUnterminatedComment(before - 1)) {
+            // the error token starts at the innermost comment opener, lexing cannot restart there
+            before--;
         }
-        Token t = switch (peek()) {
+        int first = Math.max(before - 1, 0);
+        int restart = before == 0 ? 0 : previous.start(first);
+
+        LineMap lines = previous.lines().prefix(restart);
+        Lexer lexer = new Lexer(source, lines, restart, source.limit());
+        TokenBuffer tokens = new TokenBuffer(source, lines, previousSize + 1);
+        tokens.addAll(previous, 0, first, 0);
+        int resync = previousSize;
+        int candidate = first;
+        while (lexer.scan()) {
+            int previousStart = lexer.tokenStart - delta;
+            if (previousStart > previousEditEnd) {
+                while (candidate < previousSize && previous.start(candidate) < previousStart) {
+                    candidate++;
+                }
+                if (candidate < previousSize
+                    && previous.start(candidate) == previousStart
+                    && previous.length(candidate) == lexer.tokenLength
+                    && previous.kind(candidate) == lexer.kind
+                    && previous.subtype(candidate) == lexer.subtype) {
+                    resync = candidate;
+                    break;
+                }
+            }
+            tokens.add(lexer.kind, lexer.subtype, lexer.tokenStart, lexer.tokenLength);
+        }
+        int inserted = tokens.size() - first;
+        int removed = resync - first;
+        if (resync < previousSize) {
+            lines.addLineStarts(previous.lines(), previous.start(resync) + previous.length(resync), delta);
+            tokens.addAll(previous, resync, previousSize, delta);
+        }
+        previous.lines().forwardTo(lines, offset, previousEditEnd, delta);
+
+        // the token lexing restarted at is unchanged if it ends before the edit
+        if (before > 0 && removed > 0 && inserted > 0
+            && previous.start(first) + previous.length(first) < offset
+            && previous.length(first) == tokens.length(first)
+            && previous.kind(first) == tokens.kind(first)
+            && previous.subtype(first) == tokens.subtype(first)) {
+            first++;
+            removed--;
+            inserted--;
+        }
+        return new TokenEdit(tokens, first, removed, inserted);
+    }
+
+    /// {@return an empty buffer tokens of this lexer can be added to}
+    public TokenBuffer newBuffer(int capacity) {
+        return new TokenBuffer(this.source, this.lines, capacity);
+    }
+
+    /// Finds the next token and stores its properties in the token fields.
+    /// {@return `false` if the end of the input is reached}
+    private boolean scan() {
+        if (skipWhitespace()) {
+            return true;
+        }
+        if (this.pos >= this.limit) {
+            return false;
+        }
+        switch (peek()) {
             case '(' -> separator(SeparatorType.PAREN_OPEN);
             case ')' -> separator(SeparatorType.PAREN_CLOSE);
             case '{' -> separator(SeparatorType.BRACE_OPEN);
@@ -41,178 +242,340 @@ public class Lexer {
             case '*' -> singleOrAssign(OperatorType.MUL, OperatorType.ASSIGN_MUL);
             case '/' -> singleOrAssign(OperatorType.DIV, OperatorType.ASSIGN_DIV);
             case '%' -> singleOrAssign(OperatorType.MOD, OperatorType.ASSIGN_MOD);
-            case '=' -> new Operator(OperatorType.ASSIGN, buildSpan(1));
+            case '=' -> token(TokenKind.OPERATOR, OperatorType.ASSIGN.ordinal(), 1);
             default -> {
                 if (isIdentifierChar(peek())) {
                     if (isNumeric(peek())) {
-                        yield lexNumber();
+                        lexNumber();
+                    } else {
+                        lexIdentifierOrKeyword();
                     }
-                    yield lexIdentifierOrKeyword();
+                } else {
+                    token(TokenKind.ERROR, 0, 1);
                 }
-                yield new ErrorToken(String.valueOf(peek()), buildSpan(1));
             }
-        };
-
-        return Optional.of(t);
+        }
+        return true;
     }
 
-    private @Nullable ErrorToken skipWhitespace() {
-        enum CommentType {
-            SINGLE_LINE,
-            MULTI_LINE
-        }
-        CommentType currentCommentType = null;
-        int multiLineCommentDepth = 0;
-        int commentStart = -1;
-        while (hasMore(0)) {
+    /// Skips whitespace and comments.
+    /// {@return `true` if an unterminated comment was found, which is stored as error token}
+    private boolean skipWhitespace() {
+        while (this.pos < this.limit) {
             switch (peek()) {
-                case ' ', '\t' -> this.pos++;
+                case ' ', '\t' -> this.pos = skipBlanks(this.pos + 1);
                 case '\n', '\r' -> {
                     this.pos++;
-                    this.lineStart = this.pos;
-                    this.line++;
-                    if (currentCommentType == CommentType.SINGLE_LINE) {
-                        currentCommentType = null;
+                    this.lines.addLineStart(this.pos);
+                }
+                case '/' -> {
+                    if (!hasMore(1)) {
+                        return false;
+                    }
+                    if (peek(1) == '/') {
+                        // the line break is handled by the next iteration
+                        this.pos = findLineBreak(this.pos + 2);
+                    } else if (peek(1) == '*') {
+                        if (!skipMultiLineComment()) {
+                            return true;
+                        }
+                    } else {
+                        return false;
                     }
                 }
+                default -> {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /// Skips a possibly nested multi line comment starting at the current position.
+    /// If the limit is reached within the comment before the end of the input, the comment state is stored.
+    /// {@return `false` if the comment is not terminated, which is stored as error token}
+    private boolean skipMultiLineComment() {
+        int depth = 0;
+        int commentStart = this.pos;
+        int i = this.pos;
+        while (true) {
+            if (i >= this.limit) {
+                this.pos = this.limit;
+                if (this.limit < this.length) {
+                    // the comment continues in the next chunk
+                    this.commentDepth = depth;
+                    this.commentStart = commentStart;
+                    return true;
+                }
+                // report the innermost comment that is not closed
+                setToken(TokenKind.ERROR, 0, commentStart, this.length - commentStart);
+                return false;
+            }
+            switch (byteAt(i)) {
                 case '/' -> {
-                    if (currentCommentType == CommentType.SINGLE_LINE) {
-                        this.pos++;
-                        continue;
+                    if (i + 1 < this.length && byteAt(i + 1) == '*') {
+                        depth++;
+                        commentStart = i;
+                        i += 2;
+                    } else {
+                        i++;
                     }
-                    if (hasMore(1)) {
-                        if (peek(1) == '/' && currentCommentType == null) {
-                            currentCommentType = CommentType.SINGLE_LINE;
-                        } else if (peek(1) == '*') {
-                            currentCommentType = CommentType.MULTI_LINE;
-                            multiLineCommentDepth++;
-                        } else if (currentCommentType == CommentType.MULTI_LINE) {
-                            this.pos++;
-                            continue;
-                        } else {
-                            return null;
+                }
+                case '*' -> {
+                    if (i + 1 < this.length && byteAt(i + 1) == '/') {
+                        i += 2;
+                        if (--depth == 0) {
+                            this.pos = i;
+                            return true;
                         }
-                        commentStart = this.pos;
-                        this.pos += 2;
-                        continue;
+                    } else {
+                        i++;
                     }
-                    // are we in a multi line comment of any depth?
-                    if (multiLineCommentDepth > 0) {
-                        this.pos++;
-                        continue;
+                }
+                case '\n', '\r' -> {
+                    i++;
+                    this.lines.addLineStart(i);
+                }
+                default -> i = findCommentSpecial(i + 1);
+            }
+        }
+    }
+
+    /// Skips the input up to the limit, assuming the current position is within a multi line comment.
+    /// Unlike [#skipMultiLineComment()], skipping does not stop when the comment is closed.
+    CommentScan scanWithinComment() {
+        int[] closes = new int[4];
+        int closed = 0;
+        int balance = 0;
+        int lastOpener = -1;
+        int i = this.pos;
+        while (i < this.limit) {
+            switch (byteAt(i)) {
+                case '/' -> {
+                    if (i + 1 < this.length && byteAt(i + 1) == '*') {
+                        balance++;
+                        lastOpener = i;
+                        i += 2;
+                    } else {
+                        i++;
                     }
-                    return null;
                 }
-                default -> {
-                    if (currentCommentType == CommentType.MULTI_LINE) {
-                        if (peek() == '*' && hasMore(1) && peek(1) == '/') {
-                            this.pos += 2;
-                            multiLineCommentDepth--;
-                            currentCommentType = multiLineCommentDepth == 0 ? null : CommentType.MULTI_LINE;
-                        } else {
-                            this.pos++;
+                case '*' -> {
+                    if (i + 1 < this.length && byteAt(i + 1) == '/') {
+                        i += 2;
+                        if (--balance < -closed) {
+                            // a comment opened before the start was closed
+                            if (closed == closes.length) {
+                                closes = Arrays.copyOf(closes, closed * 2);
+                            }
+                            closes[closed++] = i;
                         }
-                        continue;
-                    } else if (currentCommentType == CommentType.SINGLE_LINE) {
-                        this.pos++;
-                        continue;
+                    } else {
+                        i++;
                     }
-                    return null;
                 }
+                case '\n', '\r' -> {
+                    i++;
+                    this.lines.addLineStart(i);
+                }
+                default -> i = findCommentSpecial(i + 1);
+            }
+        }
+        this.pos = i;
+        return new CommentScan(Arrays.copyOf(closes, closed), balance, lastOpener);
+    }
+
+    /// {@return the depth of the multi line comment the limit was reached in, `0` if not within a comment}
+    int commentDepth() {
+        return this.commentDepth;
+    }
+
+    /// {@return the offset of the last comment opener of the multi line comment the limit was reached in}
+    int commentStart() {
+        return this.commentStart;
+    }
+
+    // The following methods process 8 bytes at once, see matches(long, int).
+    // ByteBuffers are big-endian, so the first byte is the most significant byte of a word.
+
+    /// {@return the offset of the first byte starting at `from` that is neither a space nor a tab}
+    private int skipBlanks(int from) {
+        int i = from;
+        for (; i + Long.BYTES <= this.limit; i += Long.BYTES) {
+            long word = this.source.getLong(i);
+            long other = ~(matches(word, ' ') | matches(word, '\t')) & HIGH_BITS;
+            if (other != 0) {
+                return i + firstByte(other);
             }
         }
-        if (!hasMore(0) && currentCommentType == CommentType.MULTI_LINE) {
-            return new ErrorToken(this.source.substring(commentStart), buildSpan(0));
+        while (i < this.limit && (byteAt(i) == ' ' || byteAt(i) == '\t')) {
+            i++;
         }
-        return null;
+        return i;
     }
 
-    private Separator separator(SeparatorType parenOpen) {
-        return new Separator(parenOpen, buildSpan(1));
+    /// {@return the offset of the first line break starting at `from`, or the end of the input}
+    private int findLineBreak(int from) {
+        int i = from;
+        for (; i + Long.BYTES <= this.limit; i += Long.BYTES) {
+            long word = this.source.getLong(i);
+            long found = matches(word, '\n') | matches(word, '\r');
+            if (found != 0) {
+                return i + firstByte(found);
+            }
+        }
+        while (i < this.limit && byteAt(i) != '\n' && byteAt(i) != '\r') {
+            i++;
+        }
+        return i;
+    }
+
+    /// {@return the offset of the first byte starting at `from` that is relevant in a multi line comment,
+    /// or the end of the input}
+    private int findCommentSpecial(int from) {
+        int i = from;
+        for (; i + Long.BYTES <= this.limit; i += Long.BYTES) {
+            long word = this.source.getLong(i);
+            long found = matches(word, '*') | matches(word, '/') | matches(word, '\n') | matches(word, '\r');
+            if (found != 0) {
+                return i + firstByte(found);
+            }
+        }
+        while (i < this.limit && (CHAR_CLASSES[byteAt(i)] & COMMENT_SPECIAL) == 0) {
+            i++;
+        }
+        return i;
+    }
+
+    /// {@return a word with the highest bit of a byte set exactly if that byte of `word` equals `b`}
+    private static long matches(long word, int b) {
+        long x = word ^ (LOW_BITS * b);
+        // the highest bit of a byte is set if any bit of the byte in x is set, without carries between bytes
+        long nonZero = ((x & ~HIGH_BITS) + ~HIGH_BITS) | x;
+        return ~nonZero & HIGH_BITS;
+    }
+
+    /// {@return the index of the first byte having its highest bit set in the given non-zero mask}
+    private static int firstByte(long mask) {
+        return Long.numberOfLeadingZeros(mask) >>> 3;
+    }
+
+    private void separator(SeparatorType type) {
+        token(TokenKind.SEPARATOR, type.ordinal(), 1);
     }
 
-    private Token lexIdentifierOrKeyword() {
+    private void lexIdentifierOrKeyword() {
         int off = 1;
         while (hasMore(off) && isIdentifierChar(peek(off))) {
             off++;
         }
-        String id = this.source.substring(this.pos, this.pos + off);
-        // This is a naive solution. Using a better data structure (hashmap, trie) likely performs better.
-        for (KeywordType value : KeywordType.values()) {
-            if (value.keyword().equals(id)) {
-                return new Keyword(value, buildSpan(off));
-            }
+        int symbol = this.symbols.intern(text(this.pos, this.pos + off));
+        KeywordType keyword = this.symbols.keyword(symbol);
+        if (keyword != null) {
+            token(TokenKind.KEYWORD, keyword.ordinal(), off);
+        } else {
+            token(TokenKind.IDENTIFIER, symbol, off);
         }
-        return new Identifier(id, buildSpan(off));
     }
 
-    private Token lexNumber() {
+    /// Lexes a number literal and computes its value.
+    /// Values exceeding the range of an int are replaced by [NumberLiteral#OUT_OF_RANGE].
+    /// Decimal literals may be `2^31`, as they can be negated to [Integer#MIN_VALUE].
+    private void lexNumber() {
         if (isHexPrefix()) {
             int off = 2;
+            long value = 0;
             while (hasMore(off) && isHex(peek(off))) {
+                // once out of range, the value stays out of range
+                value = Math.min(value << 4 | hexDigit(peek(off)), MAX_HEX_LITERAL + 1);
                 off++;
             }
             if (off == 2) {
                 // 0x without any further hex digits
-                return new ErrorToken(this.source.substring(this.pos, this.pos + off), buildSpan(2));
+                token(TokenKind.ERROR, 0, off);
+            } else {
+                token(TokenKind.NUMBER_LITERAL, TokenBuffer.numberSubtype(checkRange(value, MAX_HEX_LITERAL), 16), off);
             }
-            return new NumberLiteral(this.source.substring(this.pos, this.pos + off), 16, buildSpan(off));
+            return;
         }
         int off = 1;
+        long value = peek() - '0';
         while (hasMore(off) && isNumeric(peek(off))) {
+            value = Math.min(value * 10 + (peek(off) - '0'), MAX_DECIMAL_LITERAL + 1);
             off++;
         }
         if (peek() == '0' && off > 1) {
             // leading zero is not allowed
-            return new ErrorToken(this.source.substring(this.pos, this.pos + off), buildSpan(off));
+            token(TokenKind.ERROR, 0, off);
+        } else {
+            token(TokenKind.NUMBER_LITERAL, TokenBuffer.numberSubtype(checkRange(value, MAX_DECIMAL_LITERAL), 10), off);
         }
-        return new NumberLiteral(this.source.substring(this.pos, this.pos + off), 10, buildSpan(off));
+    }
+
+    private static long checkRange(long value, long max) {
+        return value <= max ? value : NumberLiteral.OUT_OF_RANGE;
+    }
+
+    private static int hexDigit(char c) {
+        // lower case letters differ from upper case ones only in the 0x20 bit
+        return c <= '9' ? c - '0' : (c | 0x20) - 'a' + 10;
     }
 
     private boolean isHexPrefix() {
         return peek() == '0' && hasMore(1) && (peek(1) == 'x' || peek(1) == 'X');
     }
 
-    private boolean isIdentifierChar(char c) {
-        return c == '_'
-            || c >= 'a' && c <= 'z'
-            || c >= 'A' && c <= 'Z'
-            || c >= '0' && c <= '9';
+    private static boolean isIdentifierChar(char c) {
+        return (CHAR_CLASSES[c] & IDENTIFIER) != 0;
     }
 
-    private boolean isNumeric(char c) {
-        return c >= '0' && c <= '9';
+    private static boolean isNumeric(char c) {
+        return (CHAR_CLASSES[c] & NUMERIC) != 0;
     }
 
-    private boolean isHex(char c) {
-        return isNumeric(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    private static boolean isHex(char c) {
+        return (CHAR_CLASSES[c] & HEX) != 0;
     }
 
-    private Token singleOrAssign(OperatorType single, OperatorType assign) {
+    private void singleOrAssign(OperatorType single, OperatorType assign) {
         if (hasMore(1) && peek(1) == '=') {
-            return new Operator(assign, buildSpan(2));
+            token(TokenKind.OPERATOR, assign.ordinal(), 2);
+        } else {
+            token(TokenKind.OPERATOR, single.ordinal(), 1);
         }
-        return new Operator(single, buildSpan(1));
     }
 
-    private Span buildSpan(int proceed) {
-        int start = this.pos;
-        this.pos += proceed;
-        Position.SimplePosition s = new Position.SimplePosition(this.line, start - this.lineStart);
-        Position.SimplePosition e = new Position.SimplePosition(this.line, start - this.lineStart + proceed);
-        return new Span.SimpleSpan(s, e);
+    /// Stores a token starting at the current position and moves past it.
+    private void token(TokenKind kind, long subtype, int length) {
+        setToken(kind, subtype, this.pos, length);
+        this.pos += length;
+    }
+
+    private void setToken(TokenKind kind, long subtype, int start, int length) {
+        this.kind = kind;
+        this.subtype = subtype;
+        this.tokenStart = start;
+        this.tokenLength = length;
+    }
+
+    private CharSequence text(int start, int end) {
+        return new SourceSlice(this.source, start, end - start);
     }
 
     private char peek() {
-        return this.source.charAt(this.pos);
+        return (char) (this.source.get(this.pos) & 0xFF);
     }
 
     private boolean hasMore(int offset) {
-        return this.pos + offset < this.source.length();
+        return this.pos + offset < this.length;
     }
 
     private char peek(int offset) {
-        return this.source.charAt(this.pos + offset);
+        return (char) (this.source.get(this.pos + offset) & 0xFF);
+    }
+
+    private char byteAt(int offset) {
+        return (char) (this.source.get(offset) & 0xFF);
     }
 
 }
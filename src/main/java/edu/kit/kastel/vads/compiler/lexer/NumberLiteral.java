@@ -2,7 +2,12 @@ package edu.kit.kastel.vads.compiler.lexer;
 
 import edu.kit.kastel.vads.compiler.Span;
 
-public record NumberLiteral(String value, int base, Span span) implements Token {
+/// A number literal with the value computed by the lexer.
+/// @param numericValue the value of the literal, or [#OUT_OF_RANGE] if it is too large
+public record NumberLiteral(String value, int base, long numericValue, Span span) implements Token {
+    /// The numeric value of literals exceeding the range of valid literals.
+    public static final long OUT_OF_RANGE = -1;
+
     @Override
     public String asString() {
         return value();
@@ -0,0 +1,146 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import edu.kit.kastel.vads.compiler.LineMap;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/// Lexes large inputs by splitting them into chunks that are lexed in parallel.
+///
+/// Chunks end after a line feed, so neither a token nor a single line comment crosses a chunk boundary.
+/// Whether a chunk starts within a (nested) multi line comment is only known once the chunks before it
+/// are lexed. Each chunk is therefore lexed speculatively, both as starting outside of a comment and as
+/// starting within a comment of depth 1, which is lexed from the offset that comment is closed at.
+/// For deeper comments, the offsets they are closed at are known from a single scan of the chunk,
+/// the chunk is only lexed from there when it is actually needed.
+///
+/// The chunks are then stitched in order, following the comment state through the chunks.
+/// All tokens and line starts use offsets into the whole input, so no positions need to be adjusted.
+public final class ParallelLexer {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private ParallelLexer() {
+    }
+
+    /// Lexes the memory-mapped content of the given file, see [Lexer#forFile(Path)].
+    public static TokenBuffer lexAll(Path file, ForkJoinPool pool) throws IOException {
+        return lexAll(Lexer.map(file), pool, DEFAULT_CHUNK_SIZE);
+    }
+
+    /// Lexes the given source in chunks of roughly `chunkSize` bytes.
+    public static TokenBuffer lexAll(String source, ForkJoinPool pool, int chunkSize) {
+        return lexAll(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)), pool, chunkSize);
+    }
+
+    private static TokenBuffer lexAll(ByteBuffer source, ForkJoinPool pool, int chunkSize) {
+        int length = source.limit();
+        List<ForkJoinTask<Chunk>> chunks = new ArrayList<>();
+        for (int start = 0; start < length; ) {
+            int end = chunkEnd(source, (int) Math.min((long) start + chunkSize, length));
+            int chunkStart = start;
+            chunks.add(pool.submit(() -> lexChunk(source, chunkStart, end)));
+            start = end;
+        }
+
+        LineMap lines = new LineMap();
+        List<TokenBuffer> parts = new ArrayList<>(chunks.size());
+        int count = 0;
+        int depth = 0;
+        int commentStart = -1;
+        boolean unterminated = false;
+        for (ForkJoinTask<Chunk> task : chunks) {
+            Chunk chunk = task.join();
+            lines.addLineStarts(chunk.outside().lines(), chunk.start(), 0);
+            Speculation speculation;
+            if (depth == 0) {
+                speculation = chunk.outside();
+            } else if (depth == 1 && chunk.withinComment() != null) {
+                speculation = chunk.withinComment();
+            } else if (depth <= chunk.comment().closes().length) {
+                speculation = lex(source, chunk.comment().closes()[depth - 1], chunk.end());
+            } else {
+                // the whole chunk is within the comment
+                depth += chunk.comment().balance();
+                if (chunk.comment().lastOpener() >= 0) {
+                    commentStart = chunk.comment().lastOpener();
+                }
+                unterminated = chunk.end() == length;
+                continue;
+            }
+            parts.add(speculation.tokens());
+            count += speculation.tokens().size();
+            depth = speculation.commentDepth();
+            commentStart = speculation.commentStart();
+        }
+
+        TokenBuffer tokens = new TokenBuffer(source, lines, count + 1);
+        for (TokenBuffer part : parts) {
+            tokens.addAll(part, 0, part.size(), 0);
+        }
+        if (unterminated) {
+            // report the innermost comment that is not closed, as Lexer does
+            tokens.add(TokenKind.ERROR, 0, commentStart, length - commentStart);
+        }
+        return tokens;
+    }
+
+    private static Chunk lexChunk(ByteBuffer source, int start, int end) {
+        Speculation outside = lex(source, start, end);
+        if (start == 0) {
+            // the input does not start within a comment
+            return new Chunk(start, end, outside, new CommentScan(new int[0], 0, -1), null);
+        }
+        CommentScan comment = new Lexer(source, new LineMap(), start, end).scanWithinComment();
+        Speculation withinComment = null;
+        if (comment.closes().length > 0) {
+            withinComment = lex(source, comment.closes()[0], end);
+        }
+        return new Chunk(start, end, outside, comment, withinComment);
+    }
+
+    /// Lexes `[start, end)` assuming `start` is not within a comment.
+    private static Speculation lex(ByteBuffer source, int start, int end) {
+        Lexer lexer = new Lexer(source, new LineMap(), start, end);
+        TokenBuffer tokens = lexer.newBuffer(Math.max((end - start) / 8, 16));
+        while (lexer.nextToken(tokens)) {
+            // keep going
+        }
+        return new Speculation(tokens, lexer.commentDepth(), lexer.commentStart());
+    }
+
+    /// {@return the offset after the first line feed at or after `offset`, or the end of the input}
+    private static int chunkEnd(ByteBuffer source, int offset) {
+        for (int i = offset; i < source.limit(); i++) {
+            if (source.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return source.limit();
+    }
+
+    /// The tokens of a chunk lexed from some offset, and the comment state at the end of the chunk.
+    private record Speculation(TokenBuffer tokens, int commentDepth, int commentStart) {
+        LineMap lines() {
+            return tokens().lines();
+        }
+    }
+
+    /// @param outside the tokens if the chunk does not start within a comment, its line map has all line starts
+    /// @param comment the offsets comments opened before the chunk are closed at
+    /// @param withinComment the tokens if the chunk starts within a comment of depth 1
+    private record Chunk(
+        int start,
+        int end,
+        Speculation outside,
+        CommentScan comment,
+        @Nullable Speculation withinComment
+    ) {
+    }
+}
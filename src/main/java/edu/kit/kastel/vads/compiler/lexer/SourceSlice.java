@@ -0,0 +1,44 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/// A [CharSequence] view of a range of the bytes the [Lexer] operates on.
+/// Each byte is interpreted as one character, which is exact for ASCII input.
+/// The underlying bytes are only copied when [#toString()] is called.
+final class SourceSlice implements CharSequence {
+    private final ByteBuffer source;
+    private final int offset;
+    private final int length;
+
+    SourceSlice(ByteBuffer source, int offset, int length) {
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return this.length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, this.length);
+        return (char) (this.source.get(this.offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, this.length);
+        return new SourceSlice(this.source, this.offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        byte[] bytes = new byte[this.length];
+        this.source.get(this.offset, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,222 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import edu.kit.kastel.vads.compiler.LineMap;
+import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/// Stores tokens in primitive columns instead of one object per token.
+///
+/// Tokens are addressed by their index in the order they were added.
+/// The subtype of a token depends on its kind: it is the ordinal of the [KeywordType], [OperatorType]
+/// or [SeparatorType], the symbol id of an [Identifier], or the value and base of a [NumberLiteral]
+/// as created by [#numberSubtype(long, int)].
+/// [#token(int)] creates a [Token] object for the cases where one is needed.
+///
+/// Tokens that are not needed anymore can be dropped by [#discardBefore(int)].
+/// The storage is then reused, which allows using a buffer as a small window over a token stream.
+public final class TokenBuffer {
+    private static final TokenKind[] KINDS = TokenKind.values();
+    private static final KeywordType[] KEYWORD_TYPES = KeywordType.values();
+    private static final OperatorType[] OPERATOR_TYPES = OperatorType.values();
+    private static final SeparatorType[] SEPARATOR_TYPES = SeparatorType.values();
+
+    private final ByteBuffer source;
+    private final LineMap lines;
+    // ring buffers indexed by index & (capacity - 1)
+    private byte[] kinds;
+    private long[] subtypes;
+    private int[] starts;
+    private int[] lengths;
+    // the index of the first token not discarded yet
+    private int first;
+    private int size;
+
+    TokenBuffer(ByteBuffer source, LineMap lines, int capacity) {
+        int actualCapacity = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.source = source;
+        this.lines = lines;
+        this.kinds = new byte[actualCapacity];
+        this.subtypes = new long[actualCapacity];
+        this.starts = new int[actualCapacity];
+        this.lengths = new int[actualCapacity];
+    }
+
+    /// {@return the number of tokens added to this buffer, including discarded tokens}
+    public int size() {
+        return this.size;
+    }
+
+    public TokenKind kind(int index) {
+        return KINDS[this.kinds[slot(index)]];
+    }
+
+    public long subtype(int index) {
+        return this.subtypes[slot(index)];
+    }
+
+    /// {@return the offset of the first byte of the token in the source}
+    public int start(int index) {
+        return this.starts[slot(index)];
+    }
+
+    /// {@return the number of bytes of the token in the source}
+    public int length(int index) {
+        return this.lengths[slot(index)];
+    }
+
+    public boolean isKeyword(int index, KeywordType type) {
+        return kind(index) == TokenKind.KEYWORD && subtype(index) == type.ordinal();
+    }
+
+    public boolean isOperator(int index, OperatorType type) {
+        return kind(index) == TokenKind.OPERATOR && subtype(index) == type.ordinal();
+    }
+
+    public boolean isSeparator(int index, SeparatorType type) {
+        return kind(index) == TokenKind.SEPARATOR && subtype(index) == type.ordinal();
+    }
+
+    /// {@return the operator type of the token, assuming it is an [Operator]}
+    public OperatorType operatorType(int index) {
+        assert kind(index) == TokenKind.OPERATOR : "not an operator " + token(index);
+        return OPERATOR_TYPES[(int) subtype(index)];
+    }
+
+    /// {@return a newly created object representing the token at the given index}
+    public Token token(int index) {
+        int slot = slot(index);
+        return token(
+            this.source,
+            KINDS[this.kinds[slot]],
+            this.subtypes[slot],
+            this.starts[slot],
+            this.lengths[slot],
+            new Span.OffsetSpan(this.lines, this.starts[slot], this.starts[slot] + this.lengths[slot])
+        );
+    }
+
+    /// {@return the number of tokens starting before the given offset}
+    /// Requires that no tokens were discarded.
+    public int countStartingBefore(int offset) {
+        assert this.first == 0 : "tokens were discarded";
+        int low = 0;
+        int high = this.size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.starts[mid] < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /// Drops all tokens before the given index, they cannot be accessed afterwards.
+    public void discardBefore(int index) {
+        assert index <= this.size : "cannot discard tokens not added yet";
+        this.first = Math.max(this.first, index);
+    }
+
+    void add(TokenKind kind, long subtype, int start, int length) {
+        if (this.size - this.first == this.kinds.length) {
+            grow();
+        }
+        int slot = this.size & (this.kinds.length - 1);
+        this.kinds[slot] = (byte) kind.ordinal();
+        this.subtypes[slot] = subtype;
+        this.starts[slot] = start;
+        this.lengths[slot] = length;
+        this.size++;
+    }
+
+    /// Adds the tokens `[start, end)` of `other`, moving their offsets by `delta`.
+    /// Requires that no tokens were discarded from both buffers.
+    void addAll(TokenBuffer other, int start, int end, int delta) {
+        assert this.first == 0 && other.first == 0 : "tokens were discarded";
+        int count = end - start;
+        while (this.size + count > this.kinds.length) {
+            grow();
+        }
+        // without discarded tokens, the slots are the indices
+        System.arraycopy(other.kinds, start, this.kinds, this.size, count);
+        System.arraycopy(other.subtypes, start, this.subtypes, this.size, count);
+        System.arraycopy(other.starts, start, this.starts, this.size, count);
+        System.arraycopy(other.lengths, start, this.lengths, this.size, count);
+        if (delta != 0) {
+            for (int i = this.size; i < this.size + count; i++) {
+                this.starts[i] += delta;
+            }
+        }
+        this.size += count;
+    }
+
+    /// {@return whether the token is an error token for a comment that is not terminated}
+    boolean isUnterminatedComment(int index) {
+        // the error token of an unterminated comment starts at its opener and extends to the end of the input,
+        // other error tokens like `0x` can end there as well
+        int start = start(index);
+        return kind(index) == TokenKind.ERROR && start + length(index) == this.source.limit()
+            && length(index) > 1 && this.source.get(start) == '/' && this.source.get(start + 1) == '*';
+    }
+
+    LineMap lines() {
+        return this.lines;
+    }
+
+    /// {@return the subtype of a number literal with the given value and base}
+    /// The value is [NumberLiteral#OUT_OF_RANGE] for literals not representable as an int.
+    static long numberSubtype(long value, int base) {
+        return value << 8 | base;
+    }
+
+    static Token token(ByteBuffer source, TokenKind kind, long subtype, int start, int length, Span span) {
+        return switch (kind) {
+            case ERROR -> new ErrorToken(new SourceSlice(source, start, length).toString(), span);
+            case IDENTIFIER -> new Identifier((int) subtype, span);
+            case KEYWORD -> new Keyword(KEYWORD_TYPES[(int) subtype], span);
+            case NUMBER_LITERAL -> new NumberLiteral(
+                new SourceSlice(source, start, length).toString(), (int) (subtype & 0xFF), subtype >> 8, span
+            );
+            case OPERATOR -> new Operator(OPERATOR_TYPES[(int) subtype], span);
+            case SEPARATOR -> new Separator(SEPARATOR_TYPES[(int) subtype], span);
+        };
+    }
+
+    private int slot(int index) {
+        assert index >= this.first && index < this.size : "token " + index + " is not available";
+        return index & (this.kinds.length - 1);
+    }
+
+    private void grow() {
+        int capacity = this.kinds.length * 2;
+        if (this.first == 0) {
+            // nothing was discarded, so the slots are the indices
+            this.kinds = Arrays.copyOf(this.kinds, capacity);
+            this.subtypes = Arrays.copyOf(this.subtypes, capacity);
+            this.starts = Arrays.copyOf(this.starts, capacity);
+            this.lengths = Arrays.copyOf(this.lengths, capacity);
+            return;
+        }
+        byte[] kinds = new byte[capacity];
+        long[] subtypes = new long[capacity];
+        int[] starts = new int[capacity];
+        int[] lengths = new int[capacity];
+        for (int i = this.first; i < this.size; i++) {
+            int from = slot(i);
+            int to = i & (capacity - 1);
+            kinds[to] = this.kinds[from];
+            subtypes[to] = this.subtypes[from];
+            starts[to] = this.starts[from];
+            lengths[to] = this.lengths[from];
+        }
+        this.kinds = kinds;
+        this.subtypes = subtypes;
+        this.starts = starts;
+        this.lengths = lengths;
+    }
+}
@@ -0,0 +1,14 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+/// The tokens of a source after an edit, as created by [Lexer#relex].
+///
+/// The tokens `[first, first + removed)` of the previous tokens are replaced by the tokens
+/// `[first, first + inserted)`. All other tokens are the same as before, but the ones after the
+/// replaced tokens are moved by the number of bytes inserted by the edit.
+///
+/// @param tokens all tokens of the edited source
+/// @param first the index of the first changed token
+/// @param removed the number of tokens that are not present anymore
+/// @param inserted the number of new tokens
+public record TokenEdit(TokenBuffer tokens, int first, int removed, int inserted) {
+}
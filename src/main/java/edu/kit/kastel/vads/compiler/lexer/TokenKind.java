@@ -0,0 +1,11 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+/// The kinds of [Token]s, used where tokens are not represented as objects.
+public enum TokenKind {
+    ERROR,
+    IDENTIFIER,
+    KEYWORD,
+    NUMBER_LITERAL,
+    OPERATOR,
+    SEPARATOR,
+}
@@ -0,0 +1,177 @@
+package edu.kit.kastel.vads.compiler.parser;
+
+import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
+import edu.kit.kastel.vads.compiler.lexer.TokenBuffer;
+import edu.kit.kastel.vads.compiler.lexer.TokenEdit;
+import edu.kit.kastel.vads.compiler.parser.ast.BlockTree;
+import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
+import edu.kit.kastel.vads.compiler.parser.ast.StatementTree;
+import edu.kit.kastel.vads.compiler.parser.symbol.SymbolTable;
+import org.jspecify.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/// Parses a source that is edited repeatedly, e.g. by an editor.
+///
+/// After an edit, only the tokens around the edit are lexed again, see [Lexer#relex].
+/// Statements of the main function that do not contain changed tokens are reused,
+/// only the statements containing changed tokens are parsed again.
+/// If the edit changes the function header or the closing brace, or the source did not parse
+/// before, the whole token stream is parsed again, but not lexed again.
+///
+/// If an edit only changes whitespace or comments, the previous [ProgramTree] is returned.
+/// Its spans resolve to their positions in the edited source.
+///
+/// Offsets are byte offsets, the source is expected to be ASCII-encoded.
+///
+/// Identifiers are interned into the [global symbol table][SymbolTable#global()], which keeps them for
+/// the lifetime of the process. Over a long session, this includes every prefix of an identifier
+/// typed character by character. Names are small and analyses only allocate memory for the symbols
+/// actually declared, so later edits don't get more expensive because of earlier ones.
+public class IncrementalParser {
+    // int main ( ) {
+    private static final int HEADER_LENGTH = 5;
+    private byte[] source;
+    private TokenBuffer tokens;
+    private @Nullable ProgramTree program;
+    private @Nullable ParseException error;
+    // the index of the first token of each statement in the body, followed by the index of the closing brace
+    private int[] bounds = new int[0];
+
+    public IncrementalParser(String source) {
+        this.source = source.getBytes(StandardCharsets.UTF_8);
+        this.tokens = Lexer.forString(source).lexAll();
+        parseAll();
+    }
+
+    /// {@return the program of the current source}
+    /// @throws ParseException if the current source does not parse
+    public ProgramTree program() {
+        if (this.program == null) {
+            throw Objects.requireNonNull(this.error);
+        }
+        return this.program;
+    }
+
+    /// Replaces `removedLength` bytes at `offset` by `replacement`.
+    /// {@return the program of the edited source}
+    /// @throws ParseException if the edited source does not parse
+    public ProgramTree edit(int offset, int removedLength, String replacement) {
+        Objects.checkFromIndexSize(offset, removedLength, this.source.length);
+        byte[] inserted = replacement.getBytes(StandardCharsets.UTF_8);
+        byte[] edited = new byte[this.source.length - removedLength + inserted.length];
+        int tail = this.source.length - offset - removedLength;
+        System.arraycopy(this.source, 0, edited, 0, offset);
+        System.arraycopy(inserted, 0, edited, offset, inserted.length);
+        System.arraycopy(this.source, offset + removedLength, edited, offset + inserted.length, tail);
+
+        int previousClose = this.tokens.size() - 1;
+        TokenEdit edit = Lexer.relex(this.tokens, ByteBuffer.wrap(edited), offset, removedLength, inserted.length);
+        this.source = edited;
+        this.tokens = edit.tokens();
+        if (this.program == null
+            || edit.first() < HEADER_LENGTH
+            || edit.first() + edit.removed() > previousClose) {
+            parseAll();
+        } else if ((edit.removed() > 0 || edit.inserted() > 0) && !reparse(this.program, edit)) {
+            parseAll();
+        }
+        return program();
+    }
+
+    private void parseAll() {
+        this.program = null;
+        this.error = null;
+        try {
+            this.program = new Parser(new TokenSource(this.tokens)).parseProgram();
+        } catch (ParseException e) {
+            this.error = e;
+            return;
+        }
+        // the body only consists of statements, each of them ends with a semicolon
+        int close = this.tokens.size() - 1;
+        int[] bounds = new int[16];
+        int count = 0;
+        bounds[count++] = HEADER_LENGTH;
+        for (int i = HEADER_LENGTH; i < close; i++) {
+            if (this.tokens.isSeparator(i, SeparatorType.SEMICOLON)) {
+                if (count == bounds.length) {
+                    bounds = Arrays.copyOf(bounds, count * 2);
+                }
+                bounds[count++] = i + 1;
+            }
+        }
+        this.bounds = Arrays.copyOf(bounds, count);
+    }
+
+    /// Parses the statements containing changed tokens again.
+    /// {@return `false` if the changed statements do not parse, the whole program needs to be parsed then}
+    private boolean reparse(ProgramTree previous, TokenEdit edit) {
+        int tokenDelta = edit.inserted() - edit.removed();
+        int changedEnd = edit.first() + edit.inserted();
+        // statements before the one containing the first changed token are not affected,
+        // as statements are terminated by a semicolon
+        int firstChanged = Arrays.binarySearch(this.bounds, edit.first());
+        if (firstChanged < 0) {
+            firstChanged = -firstChanged - 2;
+        }
+        TokenSource tokenSource = new TokenSource(this.tokens, this.bounds[firstChanged]);
+        Parser parser = new Parser(tokenSource);
+        List<StatementTree> parsed = new ArrayList<>();
+        int[] parsedBounds = new int[4];
+        int resume;
+        try {
+            while (true) {
+                int index = tokenSource.index();
+                if (index >= changedEnd) {
+                    // stop as soon as an unchanged statement (or the closing brace) is reached
+                    resume = Arrays.binarySearch(this.bounds, firstChanged, this.bounds.length, index - tokenDelta);
+                    if (resume >= 0) {
+                        break;
+                    }
+                }
+                if (tokenSource.peekIsSeparator(SeparatorType.BRACE_CLOSE)) {
+                    // the block ends too early, let the full parse report the error
+                    return false;
+                }
+                if (parsed.size() == parsedBounds.length) {
+                    parsedBounds = Arrays.copyOf(parsedBounds, parsed.size() * 2);
+                }
+                parsedBounds[parsed.size()] = index;
+                parsed.add(parser.parseStatement());
+            }
+        } catch (ParseException _) {
+            return false;
+        }
+
+        int count = this.bounds.length - 1;
+        FunctionTree function = previous.topLevelTrees().getFirst();
+        List<StatementTree> previousStatements = function.body().statements();
+        List<StatementTree> statements = new ArrayList<>(firstChanged + parsed.size() + count - resume);
+        statements.addAll(previousStatements.subList(0, firstChanged));
+        statements.addAll(parsed);
+        statements.addAll(previousStatements.subList(resume, count));
+
+        int[] bounds = new int[firstChanged + parsed.size() + this.bounds.length - resume];
+        System.arraycopy(this.bounds, 0, bounds, 0, firstChanged);
+        System.arraycopy(parsedBounds, 0, bounds, firstChanged, parsed.size());
+        for (int i = resume; i < this.bounds.length; i++) {
+            bounds[firstChanged + parsed.size() + i - resume] = this.bounds[i] + tokenDelta;
+        }
+        this.bounds = bounds;
+
+        int close = this.tokens.size() - 1;
+        Span span = this.tokens.token(HEADER_LENGTH - 1).span().merge(this.tokens.token(close).span());
+        BlockTree body = new BlockTree(statements, span);
+        this.program = new ProgramTree(List.of(new FunctionTree(function.returnType(), function.name(), body)));
+        return true;
+    }
+}
@@ -10,181 +10,303 @@ import edu.kit.kastel.vads.compiler.lexer.Separator;
 import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
 import edu.kit.kastel.vads.compiler.Span;
 import edu.kit.kastel.vads.compiler.lexer.Token;
-import edu.kit.kastel.vads.compiler.parser.ast.AssignmentTree;
-import edu.kit.kastel.vads.compiler.parser.ast.BinaryOperationTree;
-import edu.kit.kastel.vads.compiler.parser.ast.BlockTree;
-import edu.kit.kastel.vads.compiler.parser.ast.DeclarationTree;
-import edu.kit.kastel.vads.compiler.parser.ast.ExpressionTree;
-import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
-import edu.kit.kastel.vads.compiler.parser.ast.IdentExpressionTree;
-import edu.kit.kastel.vads.compiler.parser.ast.LValueIdentTree;
-import edu.kit.kastel.vads.compiler.parser.ast.LValueTree;
-import edu.kit.kastel.vads.compiler.parser.ast.LiteralTree;
-import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
-import edu.kit.kastel.vads.compiler.parser.ast.NegateTree;
 import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
-import edu.kit.kastel.vads.compiler.parser.ast.ReturnTree;
 import edu.kit.kastel.vads.compiler.parser.ast.StatementTree;
 import edu.kit.kastel.vads.compiler.parser.ast.TypeTree;
 import edu.kit.kastel.vads.compiler.parser.symbol.Name;
 import edu.kit.kastel.vads.compiler.parser.type.BasicType;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class Parser {
+    private static final OperatorType[] OPERATOR_TYPES = OperatorType.values();
+    // the binding strength of binary operators, 0 for all other operators
+    private static final int[] PRECEDENCE = new int[OPERATOR_TYPES.length];
+
+    static {
+        PRECEDENCE[OperatorType.PLUS.ordinal()] = 1;
+        PRECEDENCE[OperatorType.MINUS.ordinal()] = 1;
+        PRECEDENCE[OperatorType.MUL.ordinal()] = 2;
+        PRECEDENCE[OperatorType.DIV.ordinal()] = 2;
+        PRECEDENCE[OperatorType.MOD.ordinal()] = 2;
+    }
+
     private final TokenSource tokenSource;
+    private final TreeBuilder trees = new TreeBuilder();
+    // receives the trees of the current parse
+    private TreeSink sink = this.trees;
+    // the handles of the statements of the blocks currently parsed
+    private int[] statements = new int[16];
+    private int statementCount;
 
     public Parser(TokenSource tokenSource) {
         this.tokenSource = tokenSource;
     }
 
     public ProgramTree parseProgram() {
-        ProgramTree programTree = new ProgramTree(List.of(parseFunction()));
+        int program = parseProgram(this.trees);
+        ProgramTree programTree = (ProgramTree) this.trees.tree(program);
+        this.trees.clear();
+        return programTree;
+    }
+
+    /// Parses a program and passes its trees to `sink` instead of creating a [ProgramTree].
+    /// {@return the handle `sink` returned for the program}
+    public int parseProgram(TreeSink sink) {
+        this.sink = sink;
+        int[] function = {parseFunction()};
+        int program = sink.program(function, 1);
         if (this.tokenSource.hasMore()) {
             throw new ParseException("expected end of input but got " + this.tokenSource.peek());
         }
-        return programTree;
+        return program;
     }
 
-    private FunctionTree parseFunction() {
+    private int parseFunction() {
         Keyword returnType = this.tokenSource.expectKeyword(KeywordType.INT);
         Identifier identifier = this.tokenSource.expectIdentifier();
         if (!identifier.value().equals("main")) {
             throw new ParseException("expected main function but got " + identifier);
         }
-        this.tokenSource.expectSeparator(SeparatorType.PAREN_OPEN);
-        this.tokenSource.expectSeparator(SeparatorType.PAREN_CLOSE);
-        BlockTree body = parseBlock();
-        return new FunctionTree(
-            new TypeTree(BasicType.INT, returnType.span()),
-            name(identifier),
-            body
-        );
+        int type = this.sink.type(BasicType.INT, returnType.span());
+        int name = name(identifier);
+        this.tokenSource.expect(SeparatorType.PAREN_OPEN);
+        this.tokenSource.expect(SeparatorType.PAREN_CLOSE);
+        int body = parseBlock();
+        return this.sink.function(type, name, body);
     }
 
-    private BlockTree parseBlock() {
+    private int parseBlock() {
         Separator bodyOpen = this.tokenSource.expectSeparator(SeparatorType.BRACE_OPEN);
-        List<StatementTree> statements = new ArrayList<>();
-        while (!(this.tokenSource.peek() instanceof Separator sep && sep.type() == SeparatorType.BRACE_CLOSE)) {
-            statements.add(parseStatement());
+        // the statements of this block are stored after the ones of the enclosing blocks
+        int first = this.statementCount;
+        while (!this.tokenSource.peekIsSeparator(SeparatorType.BRACE_CLOSE)) {
+            int statement = parseStatementTree();
+            if (this.statementCount == this.statements.length) {
+                this.statements = Arrays.copyOf(this.statements, this.statementCount * 2);
+            }
+            this.statements[this.statementCount++] = statement;
         }
         Separator bodyClose = this.tokenSource.expectSeparator(SeparatorType.BRACE_CLOSE);
-        return new BlockTree(statements, bodyOpen.span().merge(bodyClose.span()));
+        int[] statements = first == 0 ? this.statements : Arrays.copyOfRange(this.statements, first, this.statementCount);
+        int block = this.sink.block(statements, this.statementCount - first, bodyOpen.span().merge(bodyClose.span()));
+        this.statementCount = first;
+        return block;
+    }
+
+    StatementTree parseStatement() {
+        this.sink = this.trees;
+        this.statementCount = 0;
+        StatementTree statement = (StatementTree) this.trees.tree(parseStatementTree());
+        this.trees.clear();
+        return statement;
     }
 
-    private StatementTree parseStatement() {
-        StatementTree statement;
-        if (this.tokenSource.peek().isKeyword(KeywordType.INT)) {
+    private int parseStatementTree() {
+        int statement;
+        if (this.tokenSource.peekIsKeyword(KeywordType.INT)) {
             statement = parseDeclaration();
-        } else if (this.tokenSource.peek().isKeyword(KeywordType.RETURN)) {
+        } else if (this.tokenSource.peekIsKeyword(KeywordType.RETURN)) {
             statement = parseReturn();
         } else {
             statement = parseSimple();
         }
-        this.tokenSource.expectSeparator(SeparatorType.SEMICOLON);
+        this.tokenSource.expect(SeparatorType.SEMICOLON);
         return statement;
     }
 
-    private StatementTree parseDeclaration() {
-        Keyword type = this.tokenSource.expectKeyword(KeywordType.INT);
-        Identifier ident = this.tokenSource.expectIdentifier();
-        ExpressionTree expr = null;
-        if (this.tokenSource.peek().isOperator(OperatorType.ASSIGN)) {
-            this.tokenSource.expectOperator(OperatorType.ASSIGN);
+    private int parseDeclaration() {
+        Keyword typeKeyword = this.tokenSource.expectKeyword(KeywordType.INT);
+        int type = this.sink.type(BasicType.INT, typeKeyword.span());
+        int name = name(this.tokenSource.expectIdentifier());
+        int expr = TreeSink.NONE;
+        if (this.tokenSource.peekIsOperator(OperatorType.ASSIGN)) {
+            this.tokenSource.expect(OperatorType.ASSIGN);
             expr = parseExpression();
         }
-        return new DeclarationTree(new TypeTree(BasicType.INT, type.span()), name(ident), expr);
+        return this.sink.declaration(type, name, expr);
     }
 
-    private StatementTree parseSimple() {
-        LValueTree lValue = parseLValue();
+    private int parseSimple() {
+        int lValue = parseLValue();
         Operator assignmentOperator = parseAssignmentOperator();
-        ExpressionTree expression = parseExpression();
-        return new AssignmentTree(lValue, assignmentOperator, expression);
+        int expression = parseExpression();
+        return this.sink.assignment(lValue, assignmentOperator, expression);
     }
 
     private Operator parseAssignmentOperator() {
-        if (this.tokenSource.peek() instanceof Operator op) {
-            return switch (op.type()) {
-                case ASSIGN, ASSIGN_DIV, ASSIGN_MINUS, ASSIGN_MOD, ASSIGN_MUL, ASSIGN_PLUS -> {
-                    this.tokenSource.consume();
-                    yield op;
-                }
-                default -> throw new ParseException("expected assignment but got " + op.type());
+        OperatorType type = this.tokenSource.peekOperator();
+        if (type != null) {
+            return switch (type) {
+                case ASSIGN, ASSIGN_DIV, ASSIGN_MINUS, ASSIGN_MOD, ASSIGN_MUL, ASSIGN_PLUS ->
+                    this.tokenSource.expectOperator(type);
+                default -> throw new ParseException("expected assignment but got " + type);
             };
         }
         throw new ParseException("expected assignment but got " + this.tokenSource.peek());
     }
 
-    private LValueTree parseLValue() {
-        if (this.tokenSource.peek().isSeparator(SeparatorType.PAREN_OPEN)) {
-            this.tokenSource.expectSeparator(SeparatorType.PAREN_OPEN);
-            LValueTree inner = parseLValue();
-            this.tokenSource.expectSeparator(SeparatorType.PAREN_CLOSE);
+    private int parseLValue() {
+        if (this.tokenSource.peekIsSeparator(SeparatorType.PAREN_OPEN)) {
+            this.tokenSource.expect(SeparatorType.PAREN_OPEN);
+            int inner = parseLValue();
+            this.tokenSource.expect(SeparatorType.PAREN_CLOSE);
             return inner;
         }
         Identifier identifier = this.tokenSource.expectIdentifier();
-        return new LValueIdentTree(name(identifier));
+        return this.sink.lValueIdent(name(identifier));
     }
 
-    private StatementTree parseReturn() {
+    private int parseReturn() {
         Keyword ret = this.tokenSource.expectKeyword(KeywordType.RETURN);
-        ExpressionTree expression = parseExpression();
-        return new ReturnTree(expression, ret.span().start());
+        int expression = parseExpression();
+        return this.sink.returnStatement(expression, ret.span().start());
     }
 
-    private ExpressionTree parseExpression() {
-        ExpressionTree lhs = parseTerm();
+    /// Parses an expression using precedence climbing with explicit stacks instead of recursion,
+    /// so neither the call depth nor the parse time per token depend on how deeply the expression is nested.
+    ///
+    /// Binary operators are left-associative and bind according to [#PRECEDENCE].
+    /// Unary minus binds tighter than any binary operator.
+    private int parseExpression() {
+        ExpressionStack stack = new ExpressionStack(this.sink);
         while (true) {
-            if (this.tokenSource.peek() instanceof Operator(var type, _)
-                && (type == OperatorType.PLUS || type == OperatorType.MINUS)) {
-                this.tokenSource.consume();
-                lhs = new BinaryOperationTree(lhs, parseTerm(), type);
-            } else {
-                return lhs;
+            // an operand, possibly preceded by unary minus and opening parentheses
+            while (true) {
+                if (this.tokenSource.peekIsOperator(OperatorType.MINUS)) {
+                    stack.pushNegation(this.tokenSource.consume().span());
+                } else if (this.tokenSource.peekIsSeparator(SeparatorType.PAREN_OPEN)) {
+                    this.tokenSource.skip();
+                    stack.pushParenthesis();
+                } else {
+                    break;
+                }
             }
-        }
-    }
-
-    private ExpressionTree parseTerm() {
-        ExpressionTree lhs = parseFactor();
-        while (true) {
-            if (this.tokenSource.peek() instanceof Operator(var type, _)
-                && (type == OperatorType.MUL || type == OperatorType.DIV || type == OperatorType.MOD)) {
-                this.tokenSource.consume();
-                lhs = new BinaryOperationTree(lhs, parseFactor(), type);
-            } else {
-                return lhs;
+            stack.pushOperand(parsePrimary());
+            // closing parentheses, then either a binary operator or the end of the expression
+            while (stack.inParentheses() && this.tokenSource.peekIsSeparator(SeparatorType.PAREN_CLOSE)) {
+                this.tokenSource.skip();
+                stack.closeParenthesis();
             }
+            OperatorType type = this.tokenSource.peekOperator();
+            if (type == null || PRECEDENCE[type.ordinal()] == 0) {
+                if (stack.inParentheses()) {
+                    this.tokenSource.expect(SeparatorType.PAREN_CLOSE);
+                }
+                return stack.finish();
+            }
+            this.tokenSource.skip();
+            stack.pushOperator(type);
         }
     }
 
-    private ExpressionTree parseFactor() {
+    private int parsePrimary() {
         return switch (this.tokenSource.peek()) {
-            case Separator(var type, _) when type == SeparatorType.PAREN_OPEN -> {
-                this.tokenSource.consume();
-                ExpressionTree expression = parseExpression();
-                this.tokenSource.expectSeparator(SeparatorType.PAREN_CLOSE);
-                yield expression;
-            }
-            case Operator(var type, _) when type == OperatorType.MINUS -> {
-                Span span = this.tokenSource.consume().span();
-                yield new NegateTree(parseFactor(), span);
-            }
             case Identifier ident -> {
-                this.tokenSource.consume();
-                yield new IdentExpressionTree(name(ident));
+                this.tokenSource.skip();
+                yield this.sink.identExpression(name(ident));
             }
-            case NumberLiteral(String value, int base, Span span) -> {
-                this.tokenSource.consume();
-                yield new LiteralTree(value, base, span);
+            case NumberLiteral(String value, int base, long numericValue, Span span) -> {
+                this.tokenSource.skip();
+                yield this.sink.literal(value, base, numericValue, span);
             }
             case Token t -> throw new ParseException("invalid factor " + t);
         };
     }
 
-    private static NameTree name(Identifier ident) {
-        return new NameTree(Name.forIdentifier(ident), ident.span());
+    /// The operand and operator stacks of [#parseExpression()].
+    private static final class ExpressionStack {
+        // markers on the operator stack, binary operators are stored as their ordinal
+        private static final int PARENTHESIS = -1;
+        private static final int NEGATION = -2;
+
+        private final TreeSink sink;
+        private final List<Span> negations = new ArrayList<>();
+        private int[] operands = new int[8];
+        private int operandCount;
+        private int[] operators = new int[8];
+        private int operatorCount;
+        private int openParentheses;
+
+        ExpressionStack(TreeSink sink) {
+            this.sink = sink;
+        }
+
+        void pushNegation(Span minus) {
+            this.negations.add(minus);
+            push(NEGATION);
+        }
+
+        void pushParenthesis() {
+            this.openParentheses++;
+            push(PARENTHESIS);
+        }
+
+        void pushOperand(int operand) {
+            if (this.operandCount == this.operands.length) {
+                this.operands = Arrays.copyOf(this.operands, this.operandCount * 2);
+            }
+            this.operands[this.operandCount++] = operand;
+            applyNegations();
+        }
+
+        boolean inParentheses() {
+            return this.openParentheses > 0;
+        }
+
+        void closeParenthesis() {
+            reduceTo(0);
+            assert this.operators[this.operatorCount - 1] == PARENTHESIS : "unbalanced parentheses";
+            this.operatorCount--;
+            this.openParentheses--;
+            applyNegations();
+        }
+
+        void pushOperator(OperatorType type) {
+            // all operators are left-associative, so operators of the same precedence are applied first
+            reduceTo(PRECEDENCE[type.ordinal()]);
+            push(type.ordinal());
+        }
+
+        int finish() {
+            reduceTo(0);
+            assert this.operatorCount == 0 && this.operandCount == 1 : "incomplete expression";
+            return this.operands[0];
+        }
+
+        /// Applies the binary operators on top of the stack that have at least the given precedence.
+        private void reduceTo(int precedence) {
+            while (this.operatorCount > 0) {
+                int top = this.operators[this.operatorCount - 1];
+                if (top < 0 || PRECEDENCE[top] < precedence) {
+                    return;
+                }
+                this.operatorCount--;
+                int rhs = this.operands[--this.operandCount];
+                int lhs = this.operands[this.operandCount - 1];
+                this.operands[this.operandCount - 1] = this.sink.binaryOperation(lhs, rhs, OPERATOR_TYPES[top]);
+            }
+        }
+
+        private void applyNegations() {
+            while (this.operatorCount > 0 && this.operators[this.operatorCount - 1] == NEGATION) {
+                this.operatorCount--;
+                int operand = this.operands[this.operandCount - 1];
+                this.operands[this.operandCount - 1] = this.sink.negate(operand, this.negations.removeLast());
+            }
+        }
+
+        private void push(int operator) {
+            if (this.operatorCount == this.operators.length) {
+                this.operators = Arrays.copyOf(this.operators, this.operatorCount * 2);
+            }
+            this.operators[this.operatorCount++] = operator;
+        }
+    }
+
+    private int name(Identifier ident) {
+        return this.sink.name(Name.forIdentifier(ident), ident.span());
     }
 }
@@ -16,13 +16,21 @@ import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
 import edu.kit.kastel.vads.compiler.parser.ast.StatementTree;
 import edu.kit.kastel.vads.compiler.parser.ast.TypeTree;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 
 /// This is a utility class to help with debugging the parser.
+///
+/// Nested trees are printed using an explicit work stack, so trees of any depth can be printed.
 public class Printer {
 
     private final Tree ast;
     private final StringBuilder builder = new StringBuilder();
+    // trees and printing steps that are still to be processed, see printRoot
+    private final Deque<Object> work = new ArrayDeque<>();
     private boolean requiresIndent;
     private int indentDepth;
 
@@ -37,79 +45,78 @@ public class Printer {
     }
 
     private void printRoot() {
-        printTree(this.ast);
+        this.work.push(this.ast);
+        while (!this.work.isEmpty()) {
+            switch (this.work.pop()) {
+                case Tree tree -> printTree(tree);
+                case String str -> print(str);
+                case Raw(var value) -> this.builder.append(value);
+                case Layout layout -> {
+                    switch (layout) {
+                        case LINE_BREAK -> lineBreak();
+                        case SEMICOLON -> semicolon();
+                        case SPACE -> space();
+                        case INDENT -> this.indentDepth++;
+                        case DEDENT -> this.indentDepth--;
+                    }
+                }
+                default -> throw new IllegalStateException("unexpected work item");
+            }
+        }
     }
 
+    /// Prints the given tree by scheduling its parts, nested trees are printed later.
     private void printTree(Tree tree) {
         switch (tree) {
             case BlockTree(List<StatementTree> statements, _) -> {
                 print("{");
                 lineBreak();
-                this.indentDepth++;
-                for (StatementTree statement : statements) {
-                    printTree(statement);
-                }
-                this.indentDepth--;
-                print("}");
-            }
-            case FunctionTree(var returnType, var name, var body) -> {
-                printTree(returnType);
-                space();
-                printTree(name);
-                print("()");
-                space();
-                printTree(body);
+                List<Object> parts = new ArrayList<>(statements.size() + 3);
+                parts.add(Layout.INDENT);
+                parts.addAll(statements);
+                parts.add(Layout.DEDENT);
+                parts.add("}");
+                schedule(parts);
             }
+            case FunctionTree(var returnType, var name, var body) ->
+                schedule(returnType, Layout.SPACE, name, "()", Layout.SPACE, body);
             case NameTree(var name, _) -> print(name.asString());
             case ProgramTree(var topLevelTrees) -> {
+                List<Object> parts = new ArrayList<>(topLevelTrees.size() * 2);
                 for (FunctionTree function : topLevelTrees) {
-                    printTree(function);
-                    lineBreak();
+                    parts.add(function);
+                    parts.add(Layout.LINE_BREAK);
                 }
+                schedule(parts);
             }
             case TypeTree(var type, _) -> print(type.asString());
-            case BinaryOperationTree(var lhs, var rhs, var op) -> {
-                print("(");
-                printTree(lhs);
-                print(")");
-                space();
-                this.builder.append(op);
-                space();
-                print("(");
-                printTree(rhs);
-                print(")");
-            }
-            case LiteralTree(var value, _, _) -> this.builder.append(value);
-            case NegateTree(var expression, _) -> {
-                print("-(");
-                printTree(expression);
-                print(")");
-            }
-            case AssignmentTree(var lValue, var op, var expression) -> {
-                printTree(lValue);
-                space();
-                this.builder.append(op);
-                space();
-                printTree(expression);
-                semicolon();
-            }
+            case BinaryOperationTree(var lhs, var rhs, var op) ->
+                schedule("(", lhs, ")", Layout.SPACE, new Raw(op), Layout.SPACE, "(", rhs, ")");
+            case LiteralTree(var value, _, _, _) -> this.builder.append(value);
+            case NegateTree(var expression, _) -> schedule("-(", expression, ")");
+            case AssignmentTree(var lValue, var op, var expression) ->
+                schedule(lValue, Layout.SPACE, new Raw(op), Layout.SPACE, expression, Layout.SEMICOLON);
             case DeclarationTree(var type, var name, var initializer) -> {
-                printTree(type);
-                space();
-                printTree(name);
                 if (initializer != null) {
-                    print(" = ");
-                    printTree(initializer);
+                    schedule(type, Layout.SPACE, name, " = ", initializer, Layout.SEMICOLON);
+                } else {
+                    schedule(type, Layout.SPACE, name, Layout.SEMICOLON);
                 }
-                semicolon();
-            }
-            case ReturnTree(var expr, _) -> {
-                print("return ");
-                printTree(expr);
-                semicolon();
             }
-            case LValueIdentTree(var name) -> printTree(name);
-            case IdentExpressionTree(var name) -> printTree(name);
+            case ReturnTree(var expr, _) -> schedule("return ", expr, Layout.SEMICOLON);
+            case LValueIdentTree(var name) -> schedule(name);
+            case IdentExpressionTree(var name) -> schedule(name);
+        }
+    }
+
+    private void schedule(Object... parts) {
+        schedule(Arrays.asList(parts));
+    }
+
+    /// Pushes the parts to the work stack such that the first part is processed next.
+    private void schedule(List<?> parts) {
+        for (int i = parts.size() - 1; i >= 0; i--) {
+            this.work.push(parts.get(i));
         }
     }
 
@@ -135,4 +142,16 @@ public class Printer {
         this.builder.append(" ");
     }
 
+    private enum Layout {
+        LINE_BREAK,
+        SEMICOLON,
+        SPACE,
+        INDENT,
+        DEDENT
+    }
+
+    /// A value that is appended without indentation.
+    private record Raw(Object value) {
+    }
+
 }
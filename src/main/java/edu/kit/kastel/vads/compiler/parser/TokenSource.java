@@ -9,29 +9,87 @@ import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
 import edu.kit.kastel.vads.compiler.lexer.Separator;
 import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
 import edu.kit.kastel.vads.compiler.lexer.Token;
+import edu.kit.kastel.vads.compiler.lexer.TokenBuffer;
+import edu.kit.kastel.vads.compiler.lexer.TokenKind;
+import org.jspecify.annotations.Nullable;
 
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Stream;
-
+/// Provides tokens to the [Parser].
+///
+/// Tokens are stored in a [TokenBuffer] and accessed by index. Checking the next token does not
+/// create any objects, [Token] objects are only created for tokens the parser actually keeps.
+///
+/// When created from a [Lexer], tokens are lexed on demand and are dropped as soon as they are
+/// consumed, so the memory required does not grow with the size of the input.
 public class TokenSource {
-    private final List<Token> tokens;
+    /// The maximum number of tokens that can be looked ahead, the buffer for lexing on demand is sized by it.
+    public static final int LOOKAHEAD = 4;
+
+    private final TokenBuffer tokens;
+    private final @Nullable Lexer lexer;
     private int idx;
 
     public TokenSource(Lexer lexer) {
-        this.tokens = Stream.generate(lexer::nextToken)
-            .takeWhile(Optional::isPresent)
-            .map(Optional::orElseThrow)
-            .toList();
+        this.tokens = lexer.newBuffer(LOOKAHEAD);
+        this.lexer = lexer;
+    }
+
+    /// Creates a token source over already lexed tokens.
+    public TokenSource(TokenBuffer tokens) {
+        this(tokens, 0);
+    }
+
+    /// Creates a token source over already lexed tokens, starting at the token with the given index.
+    TokenSource(TokenBuffer tokens, int index) {
+        this.tokens = tokens;
+        this.lexer = null;
+        this.idx = index;
     }
 
-    TokenSource(List<Token> tokens) {
-        this.tokens = List.copyOf(tokens);
+    /// {@return the index of the next token}
+    int index() {
+        return this.idx;
     }
 
     public Token peek() {
+        return peek(0);
+    }
+
+    /// {@return the token `lookahead` tokens after the next token}
+    /// @param lookahead must be smaller than [#LOOKAHEAD]
+    public Token peek(int lookahead) {
+        assert lookahead >= 0 && lookahead < LOOKAHEAD : "cannot look ahead " + lookahead + " tokens";
+        if (!fill(lookahead + 1)) {
+            throw new ParseException("reached end of file");
+        }
+        return this.tokens.token(this.idx + lookahead);
+    }
+
+    public TokenKind peekKind() {
         expectHasMore();
-        return this.tokens.get(this.idx);
+        return this.tokens.kind(this.idx);
+    }
+
+    public boolean peekIsKeyword(KeywordType type) {
+        expectHasMore();
+        return this.tokens.isKeyword(this.idx, type);
+    }
+
+    public boolean peekIsOperator(OperatorType type) {
+        expectHasMore();
+        return this.tokens.isOperator(this.idx, type);
+    }
+
+    public boolean peekIsSeparator(SeparatorType type) {
+        expectHasMore();
+        return this.tokens.isSeparator(this.idx, type);
+    }
+
+    /// {@return the type of the next token if it is an operator, `null` otherwise}
+    public @Nullable OperatorType peekOperator() {
+        if (peekKind() != TokenKind.OPERATOR) {
+            return null;
+        }
+        return this.tokens.operatorType(this.idx);
     }
 
     public Keyword expectKeyword(KeywordType type) {
@@ -39,7 +97,7 @@ public class TokenSource {
         if (!(token instanceof Keyword kw) || kw.type() != type) {
             throw new ParseException("expected keyword '" + type + "' but got " + token);
         }
-        this.idx++;
+        advance();
         return kw;
     }
 
@@ -48,7 +106,7 @@ public class TokenSource {
         if (!(token instanceof Separator sep) || sep.type() != type) {
             throw new ParseException("expected separator '" + type + "' but got " + token);
         }
-        this.idx++;
+        advance();
         return sep;
     }
 
@@ -57,31 +115,73 @@ public class TokenSource {
         if (!(token instanceof Operator op) || op.type() != type) {
             throw new ParseException("expected operator '" + type + "' but got " + token);
         }
-        this.idx++;
+        advance();
         return op;
     }
+
     public Identifier expectIdentifier() {
         Token token = peek();
         if (!(token instanceof Identifier ident)) {
             throw new ParseException("expected identifier but got " + token);
         }
-        this.idx++;
+        advance();
         return ident;
     }
 
+    /// Like [#expectSeparator(SeparatorType)], but does not create a token object.
+    public void expect(SeparatorType type) {
+        if (!peekIsSeparator(type)) {
+            throw new ParseException("expected separator '" + type + "' but got " + peek());
+        }
+        advance();
+    }
+
+    /// Like [#expectOperator(OperatorType)], but does not create a token object.
+    public void expect(OperatorType type) {
+        if (!peekIsOperator(type)) {
+            throw new ParseException("expected operator '" + type + "' but got " + peek());
+        }
+        advance();
+    }
+
     public Token consume() {
         Token token = peek();
-        this.idx++;
+        advance();
         return token;
     }
 
+    /// Like [#consume()], but does not create a token object.
+    public void skip() {
+        expectHasMore();
+        advance();
+    }
+
     public boolean hasMore() {
-        return this.idx < this.tokens.size();
+        return fill(1);
     }
 
     private void expectHasMore() {
-        if (this.idx >= this.tokens.size()) {
+        if (!fill(1)) {
             throw new ParseException("reached end of file");
         }
     }
+
+    /// Makes sure `count` tokens starting at the current index are available.
+    /// {@return `false` if the input ends before}
+    private boolean fill(int count) {
+        while (this.tokens.size() < this.idx + count) {
+            if (this.lexer == null || !this.lexer.nextToken(this.tokens)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void advance() {
+        this.idx++;
+        if (this.lexer != null) {
+            // tokens are lexed on demand, consumed ones are not needed anymore
+            this.tokens.discardBefore(this.idx);
+        }
+    }
 }
@@ -0,0 +1,127 @@
+package edu.kit.kastel.vads.compiler.parser;
+
+import edu.kit.kastel.vads.compiler.Position;
+import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.lexer.Operator;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.parser.ast.AssignmentTree;
+import edu.kit.kastel.vads.compiler.parser.ast.BinaryOperationTree;
+import edu.kit.kastel.vads.compiler.parser.ast.BlockTree;
+import edu.kit.kastel.vads.compiler.parser.ast.DeclarationTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ExpressionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.IdentExpressionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.LValueIdentTree;
+import edu.kit.kastel.vads.compiler.parser.ast.LValueTree;
+import edu.kit.kastel.vads.compiler.parser.ast.LiteralTree;
+import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
+import edu.kit.kastel.vads.compiler.parser.ast.NegateTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ReturnTree;
+import edu.kit.kastel.vads.compiler.parser.ast.StatementTree;
+import edu.kit.kastel.vads.compiler.parser.ast.Tree;
+import edu.kit.kastel.vads.compiler.parser.ast.TypeTree;
+import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import edu.kit.kastel.vads.compiler.parser.type.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/// Builds the record based trees of [edu.kit.kastel.vads.compiler.parser.ast].
+/// The handles are indices into the list of created trees.
+final class TreeBuilder implements TreeSink {
+    private final List<Tree> trees = new ArrayList<>();
+
+    Tree tree(int handle) {
+        return this.trees.get(handle);
+    }
+
+    /// Drops all trees, handles returned before are invalid afterwards.
+    void clear() {
+        this.trees.clear();
+    }
+
+    @Override
+    public int type(Type type, Span span) {
+        return add(new TypeTree(type, span));
+    }
+
+    @Override
+    public int name(Name name, Span span) {
+        return add(new NameTree(name, span));
+    }
+
+    @Override
+    public int literal(String value, int base, long numericValue, Span span) {
+        return add(new LiteralTree(value, base, numericValue, span));
+    }
+
+    @Override
+    public int identExpression(int name) {
+        return add(new IdentExpressionTree(get(name)));
+    }
+
+    @Override
+    public int lValueIdent(int name) {
+        return add(new LValueIdentTree(get(name)));
+    }
+
+    @Override
+    public int binaryOperation(int lhs, int rhs, OperatorType operatorType) {
+        return add(new BinaryOperationTree(get(lhs), get(rhs), operatorType));
+    }
+
+    @Override
+    public int negate(int expression, Span minusPos) {
+        return add(new NegateTree(get(expression), minusPos));
+    }
+
+    @Override
+    public int assignment(int lValue, Operator operator, int expression) {
+        return add(new AssignmentTree(this.<LValueTree>get(lValue), operator, get(expression)));
+    }
+
+    @Override
+    public int declaration(int type, int name, int initializer) {
+        ExpressionTree expression = initializer == NONE ? null : get(initializer);
+        return add(new DeclarationTree(get(type), get(name), expression));
+    }
+
+    @Override
+    public int returnStatement(int expression, Position start) {
+        return add(new ReturnTree(get(expression), start));
+    }
+
+    @Override
+    public int block(int[] statements, int count, Span span) {
+        List<StatementTree> trees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            trees.add(get(statements[i]));
+        }
+        return add(new BlockTree(trees, span));
+    }
+
+    @Override
+    public int function(int returnType, int name, int body) {
+        return add(new FunctionTree(get(returnType), get(name), get(body)));
+    }
+
+    @Override
+    public int program(int[] topLevelTrees, int count) {
+        List<FunctionTree> trees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            trees.add(get(topLevelTrees[i]));
+        }
+        return add(new ProgramTree(trees));
+    }
+
+    private int add(Tree tree) {
+        this.trees.add(tree);
+        return this.trees.size() - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Tree> T get(int handle) {
+        return (T) this.trees.get(handle);
+    }
+}
@@ -0,0 +1,47 @@
+package edu.kit.kastel.vads.compiler.parser;
+
+import edu.kit.kastel.vads.compiler.Position;
+import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.lexer.Operator;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import edu.kit.kastel.vads.compiler.parser.type.Type;
+
+/// Receives the trees recognized by the [Parser].
+///
+/// Each method creates a tree and returns a handle for it, which the parser passes on when creating
+/// the parent tree. Trees are always created after their children, in the order a postorder
+/// traversal visits them.
+public interface TreeSink {
+    /// The handle passed for absent optional children.
+    int NONE = -1;
+
+    int type(Type type, Span span);
+
+    int name(Name name, Span span);
+
+    int literal(String value, int base, long numericValue, Span span);
+
+    int identExpression(int name);
+
+    int lValueIdent(int name);
+
+    int binaryOperation(int lhs, int rhs, OperatorType operatorType);
+
+    int negate(int expression, Span minusPos);
+
+    int assignment(int lValue, Operator operator, int expression);
+
+    /// @param initializer the initializer, or [#NONE]
+    int declaration(int type, int name, int initializer);
+
+    int returnStatement(int expression, Position start);
+
+    /// @param statements the first `count` elements are the statements of the block
+    int block(int[] statements, int count, Span span);
+
+    int function(int returnType, int name, int body);
+
+    /// @param topLevelTrees the first `count` elements are the top level trees of the program
+    int program(int[] topLevelTrees, int count);
+}
@@ -0,0 +1,383 @@
+package edu.kit.kastel.vads.compiler.parser.ast;
+
+import edu.kit.kastel.vads.compiler.LineMap;
+import edu.kit.kastel.vads.compiler.Position;
+import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.lexer.NumberLiteral;
+import edu.kit.kastel.vads.compiler.lexer.Operator;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.parser.Parser;
+import edu.kit.kastel.vads.compiler.parser.TreeSink;
+import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import edu.kit.kastel.vads.compiler.parser.type.BasicType;
+import edu.kit.kastel.vads.compiler.parser.type.Type;
+import edu.kit.kastel.vads.compiler.parser.visitor.ArenaVisitor;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/// Stores the trees of a compilation unit in primitive arrays instead of one record per tree.
+///
+/// Trees are identified by their index in the arena, which is the handle returned by the [TreeSink]
+/// methods. The [Parser] creates children before their parents, so the indices of a tree and all its
+/// descendants form a contiguous range ending at the tree itself, and visiting the indices in ascending
+/// order is a postorder traversal. [#accept(int, ArenaVisitor, Object)] does exactly that.
+/// Adding a tree whose children do not directly precede it in this way fails an assertion.
+///
+/// The children of a tree are accessed by [#child(int, int)], in the same order as the components
+/// of the corresponding [Tree] record. The optional initializer of a declaration is left out
+/// if it is absent.
+///
+/// All spans must be [Span.OffsetSpan]s of the same source, they are stored as their packed range.
+public final class AstArena implements TreeSink {
+    private static final TreeKind[] KINDS = TreeKind.values();
+    private static final OperatorType[] OPERATOR_TYPES = OperatorType.values();
+    private static final BasicType[] BASIC_TYPES = BasicType.values();
+    // the number of operands stored per tree
+    private static final int STRIDE = 3;
+
+    private byte[] kinds = new byte[256];
+    // the meaning of the operands depends on the kind of the tree:
+    // - children of trees with a fixed number of children
+    // - the start in lists and the number of children of blocks and programs
+    // - the operator type of binary operations and assignments, stored after the children
+    // - the symbol of names, the basic type of types, and the index into the literal columns of literals
+    private int[] operands = new int[256 * STRIDE];
+    private long[] ranges = new long[256];
+    private int size;
+    // the children of blocks and programs
+    private int[] lists = new int[64];
+    private int listSize;
+    private long[] literalValues = new long[64];
+    private int[] literalBases = new int[64];
+    private final List<String> literalTexts = new ArrayList<>();
+    private @Nullable LineMap lines;
+
+    /// {@return the number of trees in this arena}
+    public int size() {
+        return this.size;
+    }
+
+    public TreeKind kind(int tree) {
+        return KINDS[this.kinds[check(tree)]];
+    }
+
+    public Span span(int tree) {
+        long range = this.ranges[check(tree)];
+        return new Span.OffsetSpan(lines(), range);
+    }
+
+    /// {@return the offset of the first byte of the tree in the source}
+    public int startOffset(int tree) {
+        return (int) (this.ranges[check(tree)] >>> 32);
+    }
+
+    /// {@return the offset after the last byte of the tree in the source}
+    public int endOffset(int tree) {
+        return (int) this.ranges[check(tree)];
+    }
+
+    public int childCount(int tree) {
+        return switch (kind(tree)) {
+            case LITERAL, NAME, TYPE -> 0;
+            case IDENT_EXPRESSION, LVALUE_IDENT, NEGATE, RETURN -> 1;
+            case ASSIGNMENT, BINARY_OPERATION -> 2;
+            case DECLARATION -> operand(tree, 2) == NONE ? 2 : 3;
+            case FUNCTION -> 3;
+            case BLOCK, PROGRAM -> operand(tree, 1);
+        };
+    }
+
+    /// {@return the child at the given index, see [#childCount(int)]}
+    public int child(int tree, int index) {
+        assert index >= 0 && index < childCount(tree) : "no child " + index + " in " + kind(tree);
+        return switch (kind(tree)) {
+            case BLOCK, PROGRAM -> this.lists[operand(tree, 0) + index];
+            default -> operand(tree, index);
+        };
+    }
+
+    /// {@return the operator type of a binary operation or assignment}
+    public OperatorType operatorType(int tree) {
+        assert kind(tree) == TreeKind.BINARY_OPERATION || kind(tree) == TreeKind.ASSIGNMENT : "no operator";
+        return OPERATOR_TYPES[operand(tree, 2)];
+    }
+
+    /// {@return the symbol id of a name}
+    public int symbol(int tree) {
+        assert kind(tree) == TreeKind.NAME : "not a name";
+        return operand(tree, 0);
+    }
+
+    /// {@return the type of a type tree}
+    public BasicType basicType(int tree) {
+        assert kind(tree) == TreeKind.TYPE : "not a type";
+        return BASIC_TYPES[operand(tree, 0)];
+    }
+
+    /// {@return the value of a literal, or [NumberLiteral#OUT_OF_RANGE]}
+    public long literalValue(int tree) {
+        return this.literalValues[literal(tree)];
+    }
+
+    public int literalBase(int tree) {
+        return this.literalBases[literal(tree)];
+    }
+
+    /// {@return the literal as written in the source}
+    public String literalText(int tree) {
+        return this.literalTexts.get(literal(tree));
+    }
+
+    /// {@return a cursor positioned at the given tree}
+    public Cursor cursor(int tree) {
+        Cursor cursor = new Cursor();
+        cursor.moveTo(tree);
+        return cursor;
+    }
+
+    /// Lets `visitor` visit `root` and all its descendants in postorder.
+    /// This is a linear scan over the arena, it neither recurses nor needs a stack.
+    public <T> void accept(int root, ArenaVisitor<T> visitor, T data) {
+        Cursor cursor = new Cursor();
+        for (int tree = firstDescendant(root); tree <= root; tree++) {
+            cursor.moveTo(tree);
+            switch (cursor.kind()) {
+                case ASSIGNMENT -> visitor.visitAssignment(cursor, data);
+                case BINARY_OPERATION -> visitor.visitBinaryOperation(cursor, data);
+                case BLOCK -> visitor.visitBlock(cursor, data);
+                case DECLARATION -> visitor.visitDeclaration(cursor, data);
+                case FUNCTION -> visitor.visitFunction(cursor, data);
+                case IDENT_EXPRESSION -> visitor.visitIdentExpression(cursor, data);
+                case LITERAL -> visitor.visitLiteral(cursor, data);
+                case LVALUE_IDENT -> visitor.visitLValueIdent(cursor, data);
+                case NAME -> visitor.visitName(cursor, data);
+                case NEGATE -> visitor.visitNegate(cursor, data);
+                case PROGRAM -> visitor.visitProgram(cursor, data);
+                case RETURN -> visitor.visitReturn(cursor, data);
+                case TYPE -> visitor.visitType(cursor, data);
+            }
+        }
+    }
+
+    /// {@return the first tree of the contiguous range formed by `tree` and its descendants}
+    private int firstDescendant(int tree) {
+        // the first child is created before all other children
+        while (childCount(tree) > 0) {
+            tree = child(tree, 0);
+        }
+        return tree;
+    }
+
+    @Override
+    public int type(Type type, Span span) {
+        return add(TreeKind.TYPE, ((BasicType) type).ordinal(), 0, 0, range(span));
+    }
+
+    @Override
+    public int name(Name name, Span span) {
+        return add(TreeKind.NAME, name.symbol(), 0, 0, range(span));
+    }
+
+    @Override
+    public int literal(String value, int base, long numericValue, Span span) {
+        int index = this.literalTexts.size();
+        if (index == this.literalValues.length) {
+            this.literalValues = Arrays.copyOf(this.literalValues, index * 2);
+            this.literalBases = Arrays.copyOf(this.literalBases, index * 2);
+        }
+        this.literalValues[index] = numericValue;
+        this.literalBases[index] = base;
+        this.literalTexts.add(value);
+        return add(TreeKind.LITERAL, index, 0, 0, range(span));
+    }
+
+    @Override
+    public int identExpression(int name) {
+        return add(TreeKind.IDENT_EXPRESSION, name, 0, 0, this.ranges[name]);
+    }
+
+    @Override
+    public int lValueIdent(int name) {
+        return add(TreeKind.LVALUE_IDENT, name, 0, 0, this.ranges[name]);
+    }
+
+    @Override
+    public int binaryOperation(int lhs, int rhs, OperatorType operatorType) {
+        return add(TreeKind.BINARY_OPERATION, lhs, rhs, operatorType.ordinal(), merge(lhs, rhs));
+    }
+
+    @Override
+    public int negate(int expression, Span minusPos) {
+        long range = range(minusPos) & ~0xFFFF_FFFFL | endOffset(expression);
+        return add(TreeKind.NEGATE, expression, 0, 0, range);
+    }
+
+    @Override
+    public int assignment(int lValue, Operator operator, int expression) {
+        return add(TreeKind.ASSIGNMENT, lValue, expression, operator.type().ordinal(), merge(lValue, expression));
+    }
+
+    @Override
+    public int declaration(int type, int name, int initializer) {
+        long range = merge(type, initializer == NONE ? name : initializer);
+        return add(TreeKind.DECLARATION, type, name, initializer, range);
+    }
+
+    @Override
+    public int returnStatement(int expression, Position start) {
+        if (!(start instanceof Position.OffsetPosition(LineMap positionLines, int offset))
+            || positionLines != lines()) {
+            throw new IllegalArgumentException("position not in the source of the arena " + start);
+        }
+        return add(TreeKind.RETURN, expression, 0, 0, (long) offset << 32 | endOffset(expression));
+    }
+
+    @Override
+    public int block(int[] statements, int count, Span span) {
+        return add(TreeKind.BLOCK, addList(statements, count), count, 0, range(span));
+    }
+
+    @Override
+    public int function(int returnType, int name, int body) {
+        return add(TreeKind.FUNCTION, returnType, name, body, merge(returnType, body));
+    }
+
+    @Override
+    public int program(int[] topLevelTrees, int count) {
+        long range = merge(topLevelTrees[0], topLevelTrees[count - 1]);
+        return add(TreeKind.PROGRAM, addList(topLevelTrees, count), count, 0, range);
+    }
+
+    private int add(TreeKind kind, int first, int second, int third, long range) {
+        if (this.size == this.kinds.length) {
+            int capacity = this.size * 2;
+            this.kinds = Arrays.copyOf(this.kinds, capacity);
+            this.operands = Arrays.copyOf(this.operands, capacity * STRIDE);
+            this.ranges = Arrays.copyOf(this.ranges, capacity);
+        }
+        int tree = this.size++;
+        this.kinds[tree] = (byte) kind.ordinal();
+        this.operands[tree * STRIDE] = first;
+        this.operands[tree * STRIDE + 1] = second;
+        this.operands[tree * STRIDE + 2] = third;
+        this.ranges[tree] = range;
+        assert childrenPrecede(tree) : "children of " + kind + " are not directly before it";
+        return tree;
+    }
+
+    /// {@return whether the subtrees of the children of `tree` are contiguous, in order, and end right before it}
+    private boolean childrenPrecede(int tree) {
+        int next = tree;
+        for (int i = childCount(tree) - 1; i >= 0; i--) {
+            int child = child(tree, i);
+            if (child != next - 1) {
+                return false;
+            }
+            next = firstDescendant(child);
+        }
+        return true;
+    }
+
+    private int addList(int[] trees, int count) {
+        int start = this.listSize;
+        if (start + count > this.lists.length) {
+            this.lists = Arrays.copyOf(this.lists, Math.max(this.lists.length * 2, start + count));
+        }
+        System.arraycopy(trees, 0, this.lists, start, count);
+        this.listSize += count;
+        return start;
+    }
+
+    private int operand(int tree, int index) {
+        return this.operands[tree * STRIDE + index];
+    }
+
+    private int literal(int tree) {
+        assert kind(tree) == TreeKind.LITERAL : "not a literal";
+        return operand(tree, 0);
+    }
+
+    private long range(Span span) {
+        if (!(span instanceof Span.OffsetSpan(LineMap spanLines, long range))) {
+            throw new IllegalArgumentException("span without offsets " + span);
+        }
+        if (this.lines == null) {
+            this.lines = spanLines;
+        } else if (spanLines != this.lines) {
+            throw new IllegalArgumentException("span not in the source of the arena " + span);
+        }
+        return range;
+    }
+
+    private long merge(int first, int last) {
+        return this.ranges[first] & ~0xFFFF_FFFFL | endOffset(last);
+    }
+
+    private LineMap lines() {
+        if (this.lines == null) {
+            throw new IllegalStateException("no spans were added");
+        }
+        return this.lines;
+    }
+
+    private int check(int tree) {
+        assert tree >= 0 && tree < this.size : "no tree " + tree;
+        return tree;
+    }
+
+    /// A movable view of a single tree of the arena, see [ArenaVisitor].
+    public final class Cursor {
+        private int tree;
+
+        private Cursor() {
+        }
+
+        public void moveTo(int tree) {
+            this.tree = check(tree);
+        }
+
+        /// {@return the tree the cursor is positioned at}
+        public int tree() {
+            return this.tree;
+        }
+
+        public AstArena arena() {
+            return AstArena.this;
+        }
+
+        public TreeKind kind() {
+            return AstArena.this.kind(this.tree);
+        }
+
+        public Span span() {
+            return AstArena.this.span(this.tree);
+        }
+
+        public int childCount() {
+            return AstArena.this.childCount(this.tree);
+        }
+
+        public int child(int index) {
+            return AstArena.this.child(this.tree, index);
+        }
+
+        public OperatorType operatorType() {
+            return AstArena.this.operatorType(this.tree);
+        }
+
+        public int symbol() {
+            return AstArena.this.symbol(this.tree);
+        }
+
+        public long literalValue() {
+            return AstArena.this.literalValue(this.tree);
+        }
+
+        public String literalText() {
+            return AstArena.this.literalText(this.tree);
+        }
+    }
+}
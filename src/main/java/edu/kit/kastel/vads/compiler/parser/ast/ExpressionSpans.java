@@ -0,0 +1,41 @@
+package edu.kit.kastel.vads.compiler.parser.ast;
+
+import edu.kit.kastel.vads.compiler.Span;
+
+/// Computes the spans of nested expressions without recursion.
+/// The span of an expression starts at its leftmost and ends at its rightmost part.
+final class ExpressionSpans {
+
+    private ExpressionSpans() {
+    }
+
+    static Span span(ExpressionTree expression) {
+        return first(expression).merge(last(expression));
+    }
+
+    private static Span first(ExpressionTree expression) {
+        while (true) {
+            switch (expression) {
+                case BinaryOperationTree(var lhs, _, _) -> expression = lhs;
+                case NegateTree(_, var minusPos) -> {
+                    return minusPos;
+                }
+                case IdentExpressionTree _, LiteralTree _ -> {
+                    return expression.span();
+                }
+            }
+        }
+    }
+
+    private static Span last(ExpressionTree expression) {
+        while (true) {
+            switch (expression) {
+                case BinaryOperationTree(_, var rhs, _) -> expression = rhs;
+                case NegateTree(var inner, _) -> expression = inner;
+                case IdentExpressionTree _, LiteralTree _ -> {
+                    return expression.span();
+                }
+            }
+        }
+    }
+}
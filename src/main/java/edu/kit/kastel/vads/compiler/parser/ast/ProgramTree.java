@@ -14,7 +14,7 @@ public record ProgramTree(List<FunctionTree> topLevelTrees) implements Tree {
     public Span span() {
         var first = topLevelTrees.getFirst();
         var last = topLevelTrees.getLast();
-        return new Span.SimpleSpan(first.span().start(), last.span().end());
+        return first.span().merge(last.span());
     }
 
     @Override
@@ -0,0 +1,18 @@
+package edu.kit.kastel.vads.compiler.parser.ast;
+
+/// The kinds of trees stored in an [AstArena], one for each [Tree] record.
+public enum TreeKind {
+    ASSIGNMENT,
+    BINARY_OPERATION,
+    BLOCK,
+    DECLARATION,
+    FUNCTION,
+    IDENT_EXPRESSION,
+    LITERAL,
+    LVALUE_IDENT,
+    NAME,
+    NEGATE,
+    PROGRAM,
+    RETURN,
+    TYPE
+}
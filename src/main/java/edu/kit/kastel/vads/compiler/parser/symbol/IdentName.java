@@ -1,8 +1,13 @@
 package edu.kit.kastel.vads.compiler.parser.symbol;
 
-record IdentName(String identifier) implements Name {
+record IdentName(int symbol) implements Name {
     @Override
     public String asString() {
-        return identifier();
+        return SymbolTable.global().name(symbol());
+    }
+
+    @Override
+    public String toString() {
+        return "IdentName[identifier=" + asString() + "]";
     }
 }
@@ -10,8 +10,12 @@ public sealed interface Name permits IdentName, KeywordName {
     }
 
     static Name forIdentifier(Identifier identifier) {
-        return new IdentName(identifier.value());
+        return new IdentName(identifier.symbol());
     }
 
+    /// {@return the id of this name in the [SymbolTable#global()] table}
+    /// Symbol ids are dense, so they can be used to index arrays.
+    int symbol();
+
     String asString();
 }
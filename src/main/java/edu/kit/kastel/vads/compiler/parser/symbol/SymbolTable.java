@@ -0,0 +1,132 @@
+package edu.kit.kastel.vads.compiler.parser.symbol;
+
+import edu.kit.kastel.vads.compiler.lexer.KeywordType;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/// Interns identifiers into dense integer symbol ids.
+///
+/// The keywords are interned first, so the symbol id of a keyword is the [KeywordType#ordinal()]
+/// of its type. Detecting whether an identifier is a keyword therefore only takes a single
+/// [#intern(CharSequence)] call.
+///
+/// Lookups of already interned symbols don't lock, inserting new symbols is serialized.
+/// This allows sharing one table between multiple lexers running in parallel.
+public final class SymbolTable {
+    private static final KeywordType[] KEYWORDS = KeywordType.values();
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final int INITIAL_CAPACITY = 256;
+    private static final SymbolTable GLOBAL = new SymbolTable();
+
+    // open addressing table, each slot contains the symbol id + 1, or 0 if the slot is empty
+    private volatile int[] slots = new int[INITIAL_CAPACITY];
+    private volatile String[] names = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private SymbolTable() {
+        for (KeywordType keyword : KEYWORDS) {
+            int symbol = intern(keyword.keyword());
+            assert symbol == keyword.ordinal() : "keywords must be interned first";
+        }
+    }
+
+    /// {@return the table shared by all compilation units}
+    public static SymbolTable global() {
+        return GLOBAL;
+    }
+
+    /// {@return the symbol id for the given text, a new id is created if the text is not known yet}
+    public int intern(CharSequence text) {
+        int hash = hash(text);
+        int symbol = find(this.slots, this.names, hash, text);
+        if (symbol >= 0) {
+            return symbol;
+        }
+        return insert(hash, text);
+    }
+
+    /// {@return the text of the given symbol}
+    public String name(int symbol) {
+        return this.names[symbol];
+    }
+
+    /// {@return the keyword with the given symbol id, or `null` if the symbol is not a keyword}
+    public @Nullable KeywordType keyword(int symbol) {
+        if (symbol < KEYWORDS.length) {
+            return KEYWORDS[symbol];
+        }
+        return null;
+    }
+
+    private synchronized int insert(int hash, CharSequence text) {
+        int symbol = find(this.slots, this.names, hash, text);
+        if (symbol >= 0) {
+            return symbol;
+        }
+        symbol = this.size++;
+        String[] names = this.names;
+        if (symbol == names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+            this.hashes = Arrays.copyOf(this.hashes, names.length);
+        }
+        names[symbol] = text.toString();
+        this.hashes[symbol] = hash;
+        // publish the name before the slot, lock-free readers rely on that order
+        this.names = names;
+        int[] slots = this.slots;
+        if (this.size * 2 > slots.length) {
+            this.slots = rehash(slots.length * 2);
+        } else {
+            SLOTS.setRelease(slots, freeSlot(slots, hash), symbol + 1);
+        }
+        return symbol;
+    }
+
+    private int[] rehash(int capacity) {
+        int[] slots = new int[capacity];
+        for (int symbol = 0; symbol < this.size; symbol++) {
+            slots[freeSlot(slots, this.hashes[symbol])] = symbol + 1;
+        }
+        return slots;
+    }
+
+    private static int find(int[] slots, String[] names, int hash, CharSequence text) {
+        int mask = slots.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            int entry = (int) SLOTS.getAcquire(slots, i);
+            if (entry == 0) {
+                return -1;
+            }
+            String name = entry - 1 < names.length ? names[entry - 1] : null;
+            if (name == null) {
+                // the slot was published together with a newer name array, let the caller take the lock
+                return -1;
+            }
+            if (name.contentEquals(text)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private static int freeSlot(int[] slots, int hash) {
+        int mask = slots.length - 1;
+        int i = hash & mask;
+        while (slots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private static int hash(CharSequence text) {
+        int h = 0;
+        for (int i = 0; i < text.length(); i++) {
+            h = 31 * h + text.charAt(i);
+        }
+        // spread the higher bits, the table only uses the lower ones
+        return h ^ (h >>> 16);
+    }
+}
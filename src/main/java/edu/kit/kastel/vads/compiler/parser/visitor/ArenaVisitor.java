@@ -0,0 +1,50 @@
+package edu.kit.kastel.vads.compiler.parser.visitor;
+
+import edu.kit.kastel.vads.compiler.parser.ast.AstArena;
+
+/// Visits the trees of an [AstArena], see [AstArena#accept(int, ArenaVisitor, Object)].
+/// The cursor passed to the methods is positioned at the visited tree.
+/// It is reused for the next tree, so it must not be stored.
+///
+/// All methods do nothing by default, so only the trees of interest need to be handled.
+public interface ArenaVisitor<T> {
+
+    default void visitAssignment(AstArena.Cursor tree, T data) {
+    }
+
+    default void visitBinaryOperation(AstArena.Cursor tree, T data) {
+    }
+
+    default void visitBlock(AstArena.Cursor tree, T data) {
+    }
+
+    default void visitDeclaration(AstArena.Cursor tree, T data) {
+    }
+
+    default void visitFunction(AstArena.Cursor tree, T data) {
+    }
+
+    default void visitIdentExpression(AstArena.Cursor tree, T data) {
+    }
+
+    default void visitLiteral(AstArena.Cursor tree, T data) {
+    }
+
+    default void visitLValueIdent(AstArena.Cursor tree, T data) {
+    }
+
+    default void visitName(AstArena.Cursor tree, T data) {
+    }
+
+    default void visitNegate(AstArena.Cursor tree, T data) {
+    }
+
+    default void visitProgram(AstArena.Cursor tree, T data) {
+    }
+
+    default void visitReturn(AstArena.Cursor tree, T data) {
+    }
+
+    default void visitType(AstArena.Cursor tree, T data) {
+    }
+}
@@ -16,6 +16,8 @@ import edu.kit.kastel.vads.compiler.parser.ast.StatementTree;
 import edu.kit.kastel.vads.compiler.parser.ast.TypeTree;
 
 /// A visitor that traverses a tree in postorder
+///
+/// The call depth grows with the depth of the tree, [TreeWalker] traverses trees of any depth.
 /// @param <T> a type for additional data
 /// @param <R> a type for a return type
 public class RecursivePostorderVisitor<T, R> implements Visitor<T, R> {
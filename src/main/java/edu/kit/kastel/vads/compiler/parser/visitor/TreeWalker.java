@@ -0,0 +1,119 @@
+package edu.kit.kastel.vads.compiler.parser.visitor;
+
+import edu.kit.kastel.vads.compiler.parser.ast.AssignmentTree;
+import edu.kit.kastel.vads.compiler.parser.ast.BinaryOperationTree;
+import edu.kit.kastel.vads.compiler.parser.ast.BlockTree;
+import edu.kit.kastel.vads.compiler.parser.ast.DeclarationTree;
+import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.IdentExpressionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.LValueIdentTree;
+import edu.kit.kastel.vads.compiler.parser.ast.LiteralTree;
+import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
+import edu.kit.kastel.vads.compiler.parser.ast.NegateTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ReturnTree;
+import edu.kit.kastel.vads.compiler.parser.ast.Tree;
+import edu.kit.kastel.vads.compiler.parser.ast.TypeTree;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/// Traverses trees using an explicit stack instead of recursion,
+/// so the depth of a tree is not limited by the size of the call stack.
+///
+/// Children are visited in the same order as by [RecursivePostorderVisitor].
+public final class TreeWalker {
+    private Tree[] stack = new Tree[64];
+    // whether the children of the tree at the same index of the stack were pushed already
+    private boolean[] expanded = new boolean[64];
+    private int size;
+
+    private TreeWalker() {
+    }
+
+    /// Calls `action` for every tree in `root`, children before their parent.
+    public static void postorder(Tree root, Consumer<? super Tree> action) {
+        TreeWalker walker = new TreeWalker();
+        walker.push(root);
+        while (walker.size > 0) {
+            int top = walker.size - 1;
+            Tree tree = walker.stack[top];
+            if (walker.expanded[top]) {
+                walker.size--;
+                action.accept(tree);
+            } else {
+                walker.expanded[top] = true;
+                walker.pushChildren(tree);
+            }
+        }
+    }
+
+    /// Calls `action` for every tree in `root`, parents before their children.
+    public static void preorder(Tree root, Consumer<? super Tree> action) {
+        TreeWalker walker = new TreeWalker();
+        walker.push(root);
+        while (walker.size > 0) {
+            Tree tree = walker.stack[--walker.size];
+            action.accept(tree);
+            walker.pushChildren(tree);
+        }
+    }
+
+    /// Lets `visitor` visit every tree in `root` in postorder, like [RecursivePostorderVisitor] does.
+    /// The values returned by the visitor are ignored, all trees are visited with the same `data`.
+    public static <T> void postorder(Tree root, Visitor<T, ?> visitor, T data) {
+        postorder(root, tree -> tree.accept(visitor, data));
+    }
+
+    /// Pushes the children of the given tree such that the first child is on top of the stack.
+    private void pushChildren(Tree tree) {
+        switch (tree) {
+            case AssignmentTree(var lValue, _, var expression) -> {
+                push(expression);
+                push(lValue);
+            }
+            case BinaryOperationTree(var lhs, var rhs, _) -> {
+                push(rhs);
+                push(lhs);
+            }
+            case BlockTree(var statements, _) -> pushAll(statements);
+            case DeclarationTree(var type, var name, var initializer) -> {
+                if (initializer != null) {
+                    push(initializer);
+                }
+                push(name);
+                push(type);
+            }
+            case FunctionTree(var returnType, var name, var body) -> {
+                push(body);
+                push(name);
+                push(returnType);
+            }
+            case IdentExpressionTree(var name) -> push(name);
+            case LValueIdentTree(var name) -> push(name);
+            case NegateTree(var expression, _) -> push(expression);
+            case ProgramTree(var topLevelTrees) -> pushAll(topLevelTrees);
+            case ReturnTree(var expression, _) -> push(expression);
+            case LiteralTree _, NameTree _, TypeTree _ -> {
+                // no children
+            }
+        }
+    }
+
+    private void pushAll(List<? extends Tree> trees) {
+        for (int i = trees.size() - 1; i >= 0; i--) {
+            push(trees.get(i));
+        }
+    }
+
+    private void push(Tree tree) {
+        if (this.size == this.stack.length) {
+            this.stack = Arrays.copyOf(this.stack, this.size * 2);
+            this.expanded = Arrays.copyOf(this.expanded, this.size * 2);
+        }
+        this.stack[this.size] = tree;
+        this.expanded[this.size] = false;
+        this.size++;
+    }
+}
@@ -0,0 +1,56 @@
+package edu.kit.kastel.vads.compiler.semantic;
+
+import edu.kit.kastel.vads.compiler.parser.ast.Tree;
+import edu.kit.kastel.vads.compiler.parser.visitor.TreeWalker;
+import edu.kit.kastel.vads.compiler.parser.visitor.Visitor;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/// Runs multiple analyses in a single postorder traversal of a tree.
+/// Each analysis keeps its own state and sees the trees in the same order as if it was run alone.
+///
+/// The analyses are independent, so an analysis that fails does not stop the others.
+/// The reported error is the one of the first added analysis that failed,
+/// which is the error running the analyses one after another would report.
+final class FusedAnalysis {
+    private final List<Analysis<?>> analyses = new ArrayList<>();
+
+    /// Adds an analysis that visits every tree with the given `state`.
+    <T> FusedAnalysis add(Visitor<T, ?> visitor, T state) {
+        this.analyses.add(new Analysis<>(visitor, state));
+        return this;
+    }
+
+    /// Runs all analyses over `root`.
+    /// @throws SemanticException the error of the first added analysis that failed
+    void run(Tree root) {
+        @Nullable SemanticException[] errors = new SemanticException[this.analyses.size()];
+        TreeWalker.postorder(root, tree -> {
+            // analyses added after the first failed one can't change the result anymore
+            for (int i = 0; i < errors.length && errors[i] == null; i++) {
+                try {
+                    this.analyses.get(i).visit(tree);
+                } catch (SemanticException e) {
+                    if (i == 0) {
+                        // no other analysis can report an earlier error, stop the traversal
+                        throw e;
+                    }
+                    errors[i] = e;
+                }
+            }
+        });
+        for (SemanticException error : errors) {
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+
+    private record Analysis<T>(Visitor<T, ?> visitor, T state) {
+        void visit(Tree tree) {
+            tree.accept(this.visitor, this.state);
+        }
+    }
+}
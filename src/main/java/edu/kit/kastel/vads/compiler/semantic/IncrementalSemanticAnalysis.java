@@ -0,0 +1,32 @@
+package edu.kit.kastel.vads.compiler.semantic;
+
+import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
+import org.jspecify.annotations.Nullable;
+
+/// Runs the [SemanticAnalysis] for programs of an incrementally edited source.
+///
+/// The analysis only runs again if the program changed. An [edu.kit.kastel.vads.compiler.parser.IncrementalParser]
+/// returns the same [ProgramTree] for edits that do not change any tokens.
+/// Failed analyses always run again, as the messages of their errors contain positions that might have moved.
+public class IncrementalSemanticAnalysis {
+    private @Nullable ProgramTree analyzed;
+    private @Nullable SemanticException error;
+
+    /// Analyzes the given program, unless it was the program analyzed last.
+    /// @throws SemanticException if the program is not valid
+    public void analyze(ProgramTree program) {
+        if (program != this.analyzed || this.error != null) {
+            this.analyzed = null;
+            this.error = null;
+            try {
+                new SemanticAnalysis(program).analyze();
+            } catch (SemanticException e) {
+                this.error = e;
+            }
+            this.analyzed = program;
+        }
+        if (this.error != null) {
+            throw this.error;
+        }
+    }
+}
@@ -8,10 +8,9 @@ public class IntegerLiteralRangeAnalysis implements NoOpVisitor<Namespace<Void>>
 
     @Override
     public Unit visit(LiteralTree literalTree, Namespace<Void> data) {
-      literalTree.parseValue()
-          .orElseThrow(
-              () -> new SemanticException("invalid integer literal " + literalTree.value())
-          );
+        if (!literalTree.isInRange()) {
+            throw new SemanticException("invalid integer literal " + literalTree.value());
+        }
         return NoOpVisitor.super.visit(literalTree, data);
     }
 }
@@ -1,7 +1,6 @@
 package edu.kit.kastel.vads.compiler.semantic;
 
 import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
-import edu.kit.kastel.vads.compiler.parser.visitor.RecursivePostorderVisitor;
 
 public class SemanticAnalysis {
 
@@ -12,9 +11,11 @@ public class SemanticAnalysis {
     }
 
     public void analyze() {
-        this.program.accept(new RecursivePostorderVisitor<>(new IntegerLiteralRangeAnalysis()), new Namespace<>());
-        this.program.accept(new RecursivePostorderVisitor<>(new VariableStatusAnalysis()), new Namespace<>());
-        this.program.accept(new RecursivePostorderVisitor<>(new ReturnAnalysis()), new ReturnAnalysis.ReturnState());
+        new FusedAnalysis()
+            .add(new IntegerLiteralRangeAnalysis(), new Namespace<Void>())
+            .add(new VariableStatusAnalysis(), new SlotNamespace())
+            .add(new ReturnAnalysis(), new ReturnAnalysis.ReturnState())
+            .run(this.program);
     }
 
 }
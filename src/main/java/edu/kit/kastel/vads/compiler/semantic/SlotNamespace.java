@@ -0,0 +1,111 @@
+package edu.kit.kastel.vads.compiler.semantic;
+
+import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+
+/// A namespace resolving each declared variable to a dense slot, which stores an int value.
+///
+/// Names are looked up by their [symbol id][Name#symbol()], so resolving a name is two array loads.
+/// Symbol ids are global and keep growing in long running processes, e.g. in an editor session.
+/// The slots of symbols are therefore stored in pages that are only allocated once a symbol of the page
+/// is declared, so the cost of an analysis depends on the declared symbols rather than on all interned ones.
+/// Analyses can resolve a name once and then access the value through its slot.
+///
+/// Scopes are opened by [#pushScope()] and closed by [#popScope()].
+/// Closing a scope releases the slots of the variables declared in it
+/// and makes the variables shadowed by them visible again.
+final class SlotNamespace {
+    /// The slot of names that are not declared.
+    static final int UNDECLARED = -1;
+
+    private static final int PAGE_BITS = 8;
+    private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+
+    // the slot of each symbol, UNDECLARED for symbols without a visible declaration,
+    // a missing page means that none of its symbols is declared
+    private int[] @Nullable [] slotPages = new int[4][];
+    // the columns of the slots
+    private int[] symbols = new int[16];
+    private int[] values = new int[16];
+    // the slot of the same symbol the slot shadows
+    private int[] shadowed = new int[16];
+    private int slotCount;
+    // the slot count when each open scope was pushed
+    private int[] scopes = new int[8];
+    private int scopeCount;
+
+    /// {@return the slot of the visible declaration of `name`, or [#UNDECLARED]}
+    int slot(Name name) {
+        int symbol = name.symbol();
+        int page = symbol >>> PAGE_BITS;
+        if (page >= this.slotPages.length) {
+            return UNDECLARED;
+        }
+        int[] slots = this.slotPages[page];
+        return slots == null ? UNDECLARED : slots[symbol & PAGE_MASK];
+    }
+
+    /// Declares `name` in the innermost scope, shadowing any previous declaration.
+    /// {@return the slot of the new declaration}
+    int declare(Name name, int value) {
+        int symbol = name.symbol();
+        int[] slots = page(symbol);
+        if (this.slotCount == this.symbols.length) {
+            int capacity = this.slotCount * 2;
+            this.symbols = Arrays.copyOf(this.symbols, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+            this.shadowed = Arrays.copyOf(this.shadowed, capacity);
+        }
+        int slot = this.slotCount++;
+        this.symbols[slot] = symbol;
+        this.values[slot] = value;
+        this.shadowed[slot] = slots[symbol & PAGE_MASK];
+        slots[symbol & PAGE_MASK] = slot;
+        return slot;
+    }
+
+    /// {@return the page containing the slot of `symbol`, allocating it if necessary}
+    private int[] page(int symbol) {
+        int page = symbol >>> PAGE_BITS;
+        if (page >= this.slotPages.length) {
+            this.slotPages = Arrays.copyOf(this.slotPages, Math.max(this.slotPages.length * 2, page + 1));
+        }
+        int[] slots = this.slotPages[page];
+        if (slots == null) {
+            slots = new int[1 << PAGE_BITS];
+            Arrays.fill(slots, UNDECLARED);
+            this.slotPages[page] = slots;
+        }
+        return slots;
+    }
+
+    int get(int slot) {
+        assert slot >= 0 && slot < this.slotCount : "no slot " + slot;
+        return this.values[slot];
+    }
+
+    void set(int slot, int value) {
+        assert slot >= 0 && slot < this.slotCount : "no slot " + slot;
+        this.values[slot] = value;
+    }
+
+    void pushScope() {
+        if (this.scopeCount == this.scopes.length) {
+            this.scopes = Arrays.copyOf(this.scopes, this.scopeCount * 2);
+        }
+        this.scopes[this.scopeCount++] = this.slotCount;
+    }
+
+    void popScope() {
+        assert this.scopeCount > 0 : "no scope to pop";
+        int start = this.scopes[--this.scopeCount];
+        // release in reverse order, so a symbol declared twice in the scope ends up at its outer slot
+        for (int slot = this.slotCount - 1; slot >= start; slot--) {
+            int symbol = this.symbols[slot];
+            page(symbol)[symbol & PAGE_MASK] = this.shadowed[slot];
+        }
+        this.slotCount = start;
+    }
+}
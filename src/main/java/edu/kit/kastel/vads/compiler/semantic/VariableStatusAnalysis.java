@@ -17,13 +17,17 @@ import java.util.Locale;
 /// - not declared twice
 /// - not initialized twice
 /// - assigned before referenced
-class VariableStatusAnalysis implements NoOpVisitor<Namespace<VariableStatusAnalysis.VariableStatus>> {
+///
+/// The status of each variable is stored in the slot of its declaration, see [SlotNamespace].
+class VariableStatusAnalysis implements NoOpVisitor<SlotNamespace> {
+    private static final VariableStatus[] STATUSES = VariableStatus.values();
 
     @Override
-    public Unit visit(AssignmentTree assignmentTree, Namespace<VariableStatus> data) {
+    public Unit visit(AssignmentTree assignmentTree, SlotNamespace data) {
         switch (assignmentTree.lValue()) {
             case LValueIdentTree(var name) -> {
-                VariableStatus status = data.get(name);
+                int slot = data.slot(name.name());
+                VariableStatus status = status(data, slot);
                 if (assignmentTree.operator().type() == Operator.OperatorType.ASSIGN) {
                     checkDeclared(name, status);
                 } else {
@@ -31,7 +35,7 @@ class VariableStatusAnalysis implements NoOpVisitor<Namespace<VariableStatusAnal
                 }
                 if (status != VariableStatus.INITIALIZED) {
                     // only update when needed, reassignment is totally fine
-                    updateStatus(data, VariableStatus.INITIALIZED, name);
+                    data.set(slot, VariableStatus.INITIALIZED.ordinal());
                 }
             }
         }
@@ -57,27 +61,23 @@ class VariableStatusAnalysis implements NoOpVisitor<Namespace<VariableStatusAnal
     }
 
     @Override
-    public Unit visit(DeclarationTree declarationTree, Namespace<VariableStatus> data) {
-        checkUndeclared(declarationTree.name(), data.get(declarationTree.name()));
+    public Unit visit(DeclarationTree declarationTree, SlotNamespace data) {
+        NameTree name = declarationTree.name();
+        checkUndeclared(name, status(data, data.slot(name.name())));
         VariableStatus status = declarationTree.initializer() == null
             ? VariableStatus.DECLARED
             : VariableStatus.INITIALIZED;
-        updateStatus(data, status, declarationTree.name());
+        data.declare(name.name(), status.ordinal());
         return NoOpVisitor.super.visit(declarationTree, data);
     }
 
-    private static void updateStatus(Namespace<VariableStatus> data, VariableStatus status, NameTree name) {
-        data.put(name, status, (existing, replacement) -> {
-            if (existing.ordinal() >= replacement.ordinal()) {
-                throw new SemanticException("variable is already " + existing + ". Cannot be " + replacement + " here.");
-            }
-            return replacement;
-        });
+    private static @Nullable VariableStatus status(SlotNamespace data, int slot) {
+        return slot == SlotNamespace.UNDECLARED ? null : STATUSES[data.get(slot)];
     }
 
     @Override
-    public Unit visit(IdentExpressionTree identExpressionTree, Namespace<VariableStatus> data) {
-        VariableStatus status = data.get(identExpressionTree.name());
+    public Unit visit(IdentExpressionTree identExpressionTree, SlotNamespace data) {
+        VariableStatus status = status(data, data.slot(identExpressionTree.name().name()));
         checkInitialized(identExpressionTree.name(), status);
         return NoOpVisitor.super.visit(identExpressionTree, data);
     }
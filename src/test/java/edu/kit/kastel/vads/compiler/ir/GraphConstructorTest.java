@@ -0,0 +1,92 @@
+package edu.kit.kastel.vads.compiler.ir;
+
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.Phi;
+import edu.kit.kastel.vads.compiler.lexer.Identifier;
+import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class GraphConstructorTest {
+    private final GraphConstructor constructor = new GraphConstructor(node -> node, false, "test");
+    private final IrGraph graph = this.constructor.graph();
+    private final Block start = this.graph.startBlock();
+    private final Name x = Name.forIdentifier((Identifier) Lexer.forString("x").lexAll().token(0));
+    private final Node one = this.constructor.newConstInt(1);
+
+    @Test
+    void trivialPhiIsRemoved() {
+        this.constructor.writeVariable(this.x, this.start, this.one);
+        Block left = sealedSuccessor(this.start);
+        Block right = sealedSuccessor(this.start);
+        Block join = sealedSuccessor(left, right);
+
+        assertSame(this.one, this.constructor.readVariable(this.x, join));
+    }
+
+    @Test
+    void phiMergingTwoValuesIsKept() {
+        this.constructor.writeVariable(this.x, this.start, this.one);
+        Block left = sealedSuccessor(this.start);
+        Block right = sealedSuccessor(this.start);
+        Node two = this.constructor.newConstInt(2);
+        this.constructor.writeVariable(this.x, right, two);
+        Block join = sealedSuccessor(left, right);
+
+        Phi phi = assertInstanceOf(Phi.class, this.constructor.readVariable(this.x, join));
+        assertEquals(List.of(this.one, two), phi.predecessors());
+    }
+
+    @Test
+    void chainOfPhisBecomesTrivial() {
+        // a loop whose body branches, one branch jumps back to the header before the join
+        this.constructor.writeVariable(this.x, this.start, this.one);
+        Block header = new Block(this.graph);
+        addEdge(this.start, header);
+        Block latch = sealedSuccessor(header);
+        Block other = sealedSuccessor(header);
+        this.constructor.writeVariable(this.x, other, this.one);
+        Block join = sealedSuccessor(latch, other);
+
+        // merges the incomplete phi of the header with the assignment
+        Phi joinPhi = assertInstanceOf(Phi.class, this.constructor.readVariable(this.x, join));
+        Phi headerPhi = assertInstanceOf(Phi.class, joinPhi.predecessor(0));
+        assertSame(this.one, joinPhi.predecessor(1));
+        Node use = new AddNode(join, joinPhi, this.one);
+
+        // the header phi only references itself and the value before the loop,
+        // removing it leaves the join phi with a single value as well
+        addEdge(latch, header);
+        this.constructor.sealBlock(header);
+
+        assertEquals(0, headerPhi.successorCount());
+        assertEquals(0, joinPhi.successorCount());
+        assertEquals(List.of(this.one, this.one), use.predecessors());
+        assertSame(this.one, this.constructor.readVariable(this.x, header));
+        assertSame(this.one, this.constructor.readVariable(this.x, latch));
+        assertSame(this.one, this.constructor.readVariable(this.x, join));
+    }
+
+    private Block sealedSuccessor(Block... predecessors) {
+        Block block = new Block(this.graph);
+        for (Block predecessor : predecessors) {
+            addEdge(predecessor, block);
+        }
+        this.constructor.sealBlock(block);
+        return block;
+    }
+
+    /// Adds a control flow edge. Only the block of a predecessor matters, so any node stands in for a jump.
+    private static void addEdge(Block from, Block to) {
+        to.addPredecessor(new ConstIntNode(from, 0));
+    }
+}
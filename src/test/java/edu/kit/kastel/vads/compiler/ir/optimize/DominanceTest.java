@@ -0,0 +1,94 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DominanceTest {
+    private final IrGraph graph = new IrGraph("test");
+    private final Block start = this.graph.startBlock();
+
+    @Test
+    void diamond() {
+        Block left = successor(this.start);
+        Block right = successor(this.start);
+        Block join = successor(left);
+        addEdge(right, join);
+        Dominance dominance = new Dominance(this.start);
+
+        assertTrue(dominance.dominates(this.start, join));
+        assertTrue(dominance.dominates(join, join));
+        assertFalse(dominance.dominates(left, join));
+        assertFalse(dominance.dominates(right, join));
+        assertFalse(dominance.dominates(left, right));
+        assertFalse(dominance.dominates(join, left));
+    }
+
+    @Test
+    void loopHeaderBeforeAndAfterBackEdge() {
+        Block header = successor(this.start);
+        Block body = successor(header);
+        Block exit = successor(header);
+        Dominance dominance = new Dominance(this.start);
+        assertLoopDominance(dominance, header, body, exit);
+
+        // the back edge increases the predecessor count of the header, which is computed again
+        addEdge(body, header);
+        assertLoopDominance(dominance, header, body, exit);
+    }
+
+    @Test
+    void loopHeaderFirstQueriedAfterBackEdge() {
+        Block header = successor(this.start);
+        Block body = successor(header);
+        Block exit = successor(header);
+        addEdge(body, header);
+        // the body is only reached through the header, whose dominator is computed at the same time
+        assertLoopDominance(new Dominance(this.start), header, body, exit);
+    }
+
+    @Test
+    void nestedLoopsFirstQueriedAfterBackEdges() {
+        Block outer = successor(this.start);
+        Block inner = successor(outer);
+        Block innerBody = successor(inner);
+        Block latch = successor(inner);
+        addEdge(innerBody, inner);
+        addEdge(latch, outer);
+        Block exit = successor(outer);
+        Dominance dominance = new Dominance(this.start);
+
+        assertTrue(dominance.dominates(inner, innerBody));
+        assertTrue(dominance.dominates(outer, innerBody));
+        assertTrue(dominance.dominates(this.start, innerBody));
+        assertTrue(dominance.dominates(outer, exit));
+        assertFalse(dominance.dominates(inner, exit));
+        assertFalse(dominance.dominates(innerBody, latch));
+        assertFalse(dominance.dominates(latch, outer));
+    }
+
+    private void assertLoopDominance(Dominance dominance, Block header, Block body, Block exit) {
+        assertTrue(dominance.dominates(this.start, header));
+        assertTrue(dominance.dominates(header, body));
+        assertTrue(dominance.dominates(header, exit));
+        assertTrue(dominance.dominates(this.start, body));
+        assertFalse(dominance.dominates(body, header));
+        assertFalse(dominance.dominates(body, exit));
+        assertFalse(dominance.dominates(exit, body));
+    }
+
+    private Block successor(Block block) {
+        Block successor = new Block(this.graph);
+        addEdge(block, successor);
+        return successor;
+    }
+
+    /// Adds a control flow edge. Only the block of a predecessor matters, so any node stands in for a jump.
+    private static void addEdge(Block from, Block to) {
+        to.addPredecessor(new ConstIntNode(from, 0));
+    }
+}
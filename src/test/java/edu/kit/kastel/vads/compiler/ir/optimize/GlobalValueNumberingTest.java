@@ -0,0 +1,51 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode.SimpleProjectionInfo;
+import edu.kit.kastel.vads.compiler.ir.node.StartNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class GlobalValueNumberingTest {
+    private final IrGraph graph = new IrGraph("test");
+    private final Block start = this.graph.startBlock();
+    private final Node sideEffect = new ProjNode(this.start, new StartNode(this.start), SimpleProjectionInfo.SIDE_EFFECT);
+    private final Node one = new ConstIntNode(this.start, 1);
+    private final Node two = new ConstIntNode(this.start, 2);
+
+    @Test
+    void transformingTheSameNodeTwiceKeepsIt() {
+        GlobalValueNumbering gvn = new GlobalValueNumbering();
+        Node add = new AddNode(this.start, this.one, this.two);
+        Node div = new DivNode(this.start, this.one, this.two, this.sideEffect);
+        Node mod = new ModNode(this.start, this.one, this.two, this.sideEffect);
+        for (int i = 0; i < 2; i++) {
+            assertSame(add, gvn.transform(add));
+            assertSame(div, gvn.transform(div));
+            assertSame(mod, gvn.transform(mod));
+        }
+    }
+
+    @Test
+    void congruentNodesAreReplaced() {
+        GlobalValueNumbering gvn = new GlobalValueNumbering();
+        Node add = gvn.transform(new AddNode(this.start, this.one, this.two));
+        assertSame(add, gvn.transform(new AddNode(this.start, this.two, this.one)));
+
+        Node div = gvn.transform(new DivNode(this.start, this.one, this.two, this.sideEffect));
+        Node replaced = gvn.transform(new DivNode(this.start, this.one, this.two, this.sideEffect));
+        ProjNode result = assertInstanceOf(ProjNode.class, replaced);
+        assertSame(div, result.predecessor(0));
+        assertEquals(SimpleProjectionInfo.RESULT, result.projectionInfo());
+    }
+}
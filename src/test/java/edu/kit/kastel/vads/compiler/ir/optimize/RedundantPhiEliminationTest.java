@@ -0,0 +1,118 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.Phi;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode.SimpleProjectionInfo;
+import edu.kit.kastel.vads.compiler.ir.node.ReturnNode;
+import edu.kit.kastel.vads.compiler.ir.node.StartNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedundantPhiEliminationTest {
+    private final IrGraph graph = new IrGraph("test");
+    private final Block start = this.graph.startBlock();
+    private final Node sideEffect = new ProjNode(this.start, new StartNode(this.start), SimpleProjectionInfo.SIDE_EFFECT);
+    private final Node one = new ConstIntNode(this.start, 1);
+    private final Node two = new ConstIntNode(this.start, 2);
+
+    @Test
+    void twoPhiLoopCycle() {
+        // the header merges the value before the loop with the value of the body,
+        // the body merges the header value with an assignment of the same value
+        Block header = successor(this.start);
+        Block body = successor(header, header);
+        addEdge(body, header);
+        Phi headerPhi = new Phi(header);
+        Phi bodyPhi = new Phi(body);
+        headerPhi.appendOperand(this.one);
+        headerPhi.appendOperand(bodyPhi);
+        bodyPhi.appendOperand(headerPhi);
+        bodyPhi.appendOperand(this.one);
+        Node ret = returnIn(body, bodyPhi);
+
+        assertTrue(new RedundantPhiElimination().run(this.graph));
+        assertSame(this.one, ret.predecessor(ReturnNode.RESULT));
+        assertEquals(0, headerPhi.successorCount());
+        assertEquals(0, bodyPhi.successorCount());
+    }
+
+    @Test
+    void cycleWithTwoOuterOperandsIsKept() {
+        Block header = successor(this.start);
+        Block body = successor(header, header);
+        addEdge(body, header);
+        Phi headerPhi = new Phi(header);
+        Phi bodyPhi = new Phi(body);
+        headerPhi.appendOperand(this.one);
+        headerPhi.appendOperand(bodyPhi);
+        bodyPhi.appendOperand(headerPhi);
+        bodyPhi.appendOperand(this.two);
+        Node ret = returnIn(body, bodyPhi);
+
+        assertFalse(new RedundantPhiElimination().run(this.graph));
+        assertEquals(List.of(this.one, bodyPhi), headerPhi.predecessors());
+        assertEquals(List.of(headerPhi, this.two), bodyPhi.predecessors());
+        assertSame(bodyPhi, ret.predecessor(ReturnNode.RESULT));
+    }
+
+    @Test
+    void nestedCyclesWithTwoOuterOperands() {
+        // an outer loop assigns a new value after an inner loop that does not change it
+        Block outer = successor(this.start);
+        Block inner = successor(outer);
+        Block innerLatch = successor(inner);
+        addEdge(innerLatch, inner);
+        Block join = successor(innerLatch, innerLatch);
+        addEdge(join, outer);
+        Phi outerPhi = new Phi(outer);
+        Phi innerPhi = new Phi(inner);
+        Phi innerLatchPhi = new Phi(innerLatch);
+        Phi joinPhi = new Phi(join);
+        outerPhi.appendOperand(this.one);
+        outerPhi.appendOperand(joinPhi);
+        innerPhi.appendOperand(outerPhi);
+        innerPhi.appendOperand(innerLatchPhi);
+        innerLatchPhi.appendOperand(innerPhi);
+        innerLatchPhi.appendOperand(innerLatchPhi);
+        joinPhi.appendOperand(innerLatchPhi);
+        joinPhi.appendOperand(this.two);
+        Node ret = returnIn(join, joinPhi);
+
+        // the whole component merges two values, only the inner loop is replaced
+        assertTrue(new RedundantPhiElimination().run(this.graph));
+        assertEquals(List.of(this.one, joinPhi), outerPhi.predecessors());
+        assertEquals(List.of(outerPhi, this.two), joinPhi.predecessors());
+        assertEquals(0, innerPhi.successorCount());
+        assertEquals(0, innerLatchPhi.successorCount());
+        assertSame(joinPhi, ret.predecessor(ReturnNode.RESULT));
+    }
+
+    private Node returnIn(Block block, Node result) {
+        Node ret = new ReturnNode(block, this.sideEffect, result);
+        this.graph.endBlock().addPredecessor(ret);
+        return ret;
+    }
+
+    private Block successor(Block... predecessors) {
+        Block block = new Block(this.graph);
+        for (Block predecessor : predecessors) {
+            addEdge(predecessor, block);
+        }
+        return block;
+    }
+
+    /// Adds a control flow edge. Only the block of a predecessor matters, so any node stands in for a jump.
+    private static void addEdge(Block from, Block to) {
+        to.addPredecessor(new ConstIntNode(from, 0));
+    }
+}
@@ -0,0 +1,68 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelLexerTest {
+    private static final String[] SNIPPETS = {
+        "int x = 1;\n", "x = x * 0x1F;\n", "return x;\n", "  \n", "\r\n", "// line /* comment\n",
+        "/*", "*/", "/* a */\n", "/* outer /* inner */\n still outer */\n", "*/ */\n", "/*/\n", "//*\n",
+        "#\n", "999999999999\n"
+    };
+
+    @Test
+    void nestedComments() {
+        assertLexesLikeLexer("""
+            int main() {
+              /* one /* two
+                 /* three */
+              */ still a comment
+              */
+              return 0; /* /* */ */
+            }
+            """);
+    }
+
+    @Test
+    void unterminatedComments() {
+        assertLexesLikeLexer("int main() {\n  return 0;\n}\n/* never\nclosed\n");
+        assertLexesLikeLexer("int x;\n/* outer\n/* inner */\nint y;\n");
+        assertLexesLikeLexer("/*\n/*\n/*\n*/\n");
+    }
+
+    @Test
+    void randomSources() {
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            StringBuilder source = new StringBuilder();
+            int snippets = random.nextInt(30);
+            for (int i = 0; i < snippets; i++) {
+                source.append(SNIPPETS[random.nextInt(SNIPPETS.length)]);
+            }
+            assertLexesLikeLexer(source.toString());
+        }
+    }
+
+    private static void assertLexesLikeLexer(String source) {
+        TokenBuffer expected = Lexer.forString(source).lexAll();
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            for (int chunkSize = 1; chunkSize <= 16; chunkSize++) {
+                TokenBuffer actual = ParallelLexer.lexAll(source, pool, chunkSize);
+                String message = "chunk size " + chunkSize + " of " + source;
+                assertEquals(expected.size(), actual.size(), message);
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.kind(i), actual.kind(i), message);
+                    assertEquals(expected.subtype(i), actual.subtype(i), message);
+                    assertEquals(expected.start(i), actual.start(i), message);
+                    assertEquals(expected.length(i), actual.length(i), message);
+                    // includes the resolved line and column of the span
+                    assertEquals(expected.token(i).toString(), actual.token(i).toString(), message);
+                }
+            }
+        }
+    }
+}
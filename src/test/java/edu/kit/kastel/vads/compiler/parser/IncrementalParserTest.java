@@ -0,0 +1,142 @@
+package edu.kit.kastel.vads.compiler.parser;
+
+import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class IncrementalParserTest {
+    private static final String[] SNIPPETS = {
+        " ", "\n", "\r\n", "x", "1", "0x1F", ";", "+", "-", "= ", "(", ")", "{", "}",
+        "/*", "*/", "//", "int y = 2;", "x = x + 1;", "return 0;"
+    };
+
+    @Test
+    void reusedStatementsDoNotReferenceTheSource() throws ReflectiveOperationException {
+        int statements = 200;
+        StringBuilder source = new StringBuilder("int main() {\n");
+        for (int i = 0; i < statements; i++) {
+            source.append("  int v").append(i).append(" = 0;\n");
+        }
+        source.append("  return 0;\n}\n");
+        IncrementalParser parser = new IncrementalParser(source.toString());
+        ProgramTree program = parser.program();
+        for (int round = 1; round <= 3; round++) {
+            for (int i = 0; i < statements; i++) {
+                // replace the literal of the statement, all other statements are reused
+                int offset = source.indexOf(";", source.indexOf(" v" + i + " =")) - 1;
+                String literal = Integer.toString((round + i) % 10);
+                source.replace(offset, offset + 1, literal);
+                program = parser.edit(offset, 1, literal);
+            }
+        }
+        assertNoSourceReferenced(program);
+        assertEquals(parseFully(source.toString()), program.toString());
+    }
+
+    @Test
+    void editsParseLikeTheEditedSource() {
+        assertEditsParseLikeSource("int main() {\n  int x = 1;\n  return x;\n}\n", 0, 0, "");
+        assertEditsParseLikeSource("int main() {\n  int x = 1;\n  return x;\n}\n", 25, 0, "\n  x = x * 2;");
+        assertEditsParseLikeSource("int main() {\n  int x = 1;\n  return x;\n}\n", 15, 10, "");
+        assertEditsParseLikeSource("int main() {\n  int x = 1;\n  return x;\n}\n", 14, 0, "/* ");
+        assertEditsParseLikeSource("int main() {\n  /* a */ int x = 1;\n  return x;\n}\n", 17, 2, "");
+        assertEditsParseLikeSource("int main() {\n  int x = 1;\n  return x;\n}\n", 4, 4, "mein");
+        // an error token at the end of the input that is not a comment
+        assertEditsParseLikeSource("int main() {\n  return 0;\n}\n0x", 29, 0, "1");
+        assertEditsParseLikeSource("int main() {\n  return 0;\n}\n/* x", 29, 0, "*/");
+    }
+
+    @Test
+    void randomEditsParseLikeTheEditedSource() {
+        Random random = new Random(42);
+        for (int run = 0; run < 50; run++) {
+            StringBuilder source = new StringBuilder("int main() {\n");
+            int statements = random.nextInt(8);
+            for (int i = 0; i < statements; i++) {
+                source.append(switch (random.nextInt(4)) {
+                    case 0 -> "  int v" + i + " = " + i + ";\n";
+                    case 1 -> "  v0 = v0 * 2; // comment\n";
+                    case 2 -> "  /* multi\n line */ int w" + i + ";\n";
+                    default -> "  w = (1 + 2) - 3;\n";
+                });
+            }
+            source.append("  return 0;\n}\n");
+            IncrementalParser parser = new IncrementalParser(source.toString());
+            for (int edit = 0; edit < 40; edit++) {
+                int offset = random.nextInt(source.length() + 1);
+                int removed = random.nextInt(4) == 0 ? Math.min(random.nextInt(6), source.length() - offset) : 0;
+                String replacement = SNIPPETS[random.nextInt(SNIPPETS.length)];
+                source.replace(offset, offset + removed, replacement);
+                assertEquals(parseFully(source.toString()), parseIncrementally(parser, offset, removed, replacement),
+                    "after edit " + edit + " of run " + run + " at " + offset);
+            }
+        }
+    }
+
+    private static void assertEditsParseLikeSource(String source, int offset, int removed, String replacement) {
+        IncrementalParser parser = new IncrementalParser(source);
+        String edited = source.substring(0, offset) + replacement + source.substring(offset + removed);
+        assertEquals(parseFully(edited), parseIncrementally(parser, offset, removed, replacement));
+    }
+
+    /// {@return the program, including the positions of all spans, or the message of the parse error}
+    private static String parseIncrementally(IncrementalParser parser, int offset, int removed, String replacement) {
+        try {
+            return parser.edit(offset, removed, replacement).toString();
+        } catch (ParseException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String parseFully(String source) {
+        try {
+            return new Parser(new TokenSource(Lexer.forString(source))).parseProgram().toString();
+        } catch (ParseException e) {
+            return e.getMessage();
+        }
+    }
+
+    /// Follows the components of records and the elements of collections,
+    /// and fails if any of them is a buffer or a character sequence other than a string.
+    private static void assertNoSourceReferenced(Object tree) throws ReflectiveOperationException {
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayDeque<Object> worklist = new ArrayDeque<>();
+        worklist.add(tree);
+        while (!worklist.isEmpty()) {
+            Object object = worklist.removeLast();
+            if (!seen.add(object)) {
+                continue;
+            }
+            assertFalse(object instanceof ByteBuffer || object instanceof byte[], "source referenced by the tree");
+            if (object instanceof CharSequence) {
+                assertInstanceOf(String.class, object);
+            } else if (object instanceof Collection<?> collection) {
+                worklist.addAll(collection);
+            } else if (object.getClass().isRecord()) {
+                for (RecordComponent component : object.getClass().getRecordComponents()) {
+                    Method accessor = component.getAccessor();
+                    // some records are package-private
+                    accessor.setAccessible(true);
+                    Object value = accessor.invoke(object);
+                    if (value != null) {
+                        worklist.add(value);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package edu.kit.kastel.vads.compiler.parser.ast;
+
+import edu.kit.kastel.vads.compiler.lexer.Identifier;
+import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.lexer.TokenBuffer;
+import edu.kit.kastel.vads.compiler.parser.Parser;
+import edu.kit.kastel.vads.compiler.parser.TokenSource;
+import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import edu.kit.kastel.vads.compiler.parser.visitor.ArenaVisitor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AstArenaTest {
+
+    @Test
+    void declarationsAndReturn() {
+        assertArenaMatchesRecords("int main() { int x; int y = 0x1F; return x; }");
+    }
+
+    @Test
+    void expressionsAndAssignments() {
+        assertArenaMatchesRecords("""
+            int main() {
+                int a = 1 + 2 * 3 - -4;
+                a += (a / 2) % 7;
+                a *= -(-a);
+                a -= 2147483648;
+                return a * (a + 1);
+            }
+            """);
+    }
+
+    @Test
+    void manyStatements() {
+        StringBuilder source = new StringBuilder("int main() {\n");
+        for (int i = 0; i < 100; i++) {
+            source.append("    int v").append(i).append(" = ").append(i).append(" * (v0 - ").append(i).append(");\n");
+        }
+        source.append("    return v99;\n}\n");
+        assertArenaMatchesRecords(source.toString());
+    }
+
+    @Test
+    void childrenMustDirectlyPrecedeTheirParent() {
+        TokenBuffer tokens = Lexer.forString("a b").lexAll();
+        AstArena arena = new AstArena();
+        int a = arena.name(Name.forIdentifier((Identifier) tokens.token(0)), tokens.token(0).span());
+        arena.name(Name.forIdentifier((Identifier) tokens.token(1)), tokens.token(1).span());
+        assertThrows(AssertionError.class, () -> arena.identExpression(a));
+    }
+
+    /// Parses `source` into records and into an arena,
+    /// and compares the trees in postorder by kind, span and their operator, literal, name or type.
+    private static void assertArenaMatchesRecords(String source) {
+        List<String> expected = new ArrayList<>();
+        describe(new Parser(new TokenSource(Lexer.forString(source))).parseProgram(), expected);
+
+        AstArena arena = new AstArena();
+        int root = new Parser(new TokenSource(Lexer.forString(source))).parseProgram(arena);
+        List<String> actual = new ArrayList<>();
+        arena.accept(root, new Describer(), actual);
+
+        assertEquals(expected, actual);
+        assertEquals(arena.size() - 1, root);
+    }
+
+    private static void describe(Tree tree, List<String> out) {
+        String details = switch (tree) {
+            case AssignmentTree(LValueTree lValue, var operator, ExpressionTree expression) -> {
+                describe(lValue, out);
+                describe(expression, out);
+                yield "ASSIGNMENT " + operator.type();
+            }
+            case BinaryOperationTree(ExpressionTree lhs, ExpressionTree rhs, var operatorType) -> {
+                describe(lhs, out);
+                describe(rhs, out);
+                yield "BINARY_OPERATION " + operatorType;
+            }
+            case BlockTree(List<StatementTree> statements, _) -> {
+                statements.forEach(statement -> describe(statement, out));
+                yield "BLOCK";
+            }
+            case DeclarationTree(TypeTree type, NameTree name, ExpressionTree initializer) -> {
+                describe(type, out);
+                describe(name, out);
+                if (initializer != null) {
+                    describe(initializer, out);
+                }
+                yield "DECLARATION";
+            }
+            case FunctionTree(TypeTree returnType, NameTree name, BlockTree body) -> {
+                describe(returnType, out);
+                describe(name, out);
+                describe(body, out);
+                yield "FUNCTION";
+            }
+            case IdentExpressionTree(NameTree name) -> {
+                describe(name, out);
+                yield "IDENT_EXPRESSION";
+            }
+            case LiteralTree(String value, _, long numericValue, _) -> "LITERAL " + value + " " + numericValue;
+            case LValueIdentTree(NameTree name) -> {
+                describe(name, out);
+                yield "LVALUE_IDENT";
+            }
+            case NameTree(var name, _) -> "NAME " + name.symbol();
+            case NegateTree(ExpressionTree expression, _) -> {
+                describe(expression, out);
+                yield "NEGATE";
+            }
+            case ProgramTree(List<FunctionTree> topLevelTrees) -> {
+                topLevelTrees.forEach(function -> describe(function, out));
+                yield "PROGRAM";
+            }
+            case ReturnTree(ExpressionTree expression, _) -> {
+                describe(expression, out);
+                yield "RETURN";
+            }
+            case TypeTree(var type, _) -> "TYPE " + type;
+        };
+        out.add(details + " " + tree.span());
+    }
+
+    private static final class Describer implements ArenaVisitor<List<String>> {
+
+        @Override
+        public void visitAssignment(AstArena.Cursor tree, List<String> out) {
+            add(tree, "ASSIGNMENT " + tree.operatorType(), out);
+        }
+
+        @Override
+        public void visitBinaryOperation(AstArena.Cursor tree, List<String> out) {
+            add(tree, "BINARY_OPERATION " + tree.operatorType(), out);
+        }
+
+        @Override
+        public void visitBlock(AstArena.Cursor tree, List<String> out) {
+            add(tree, "BLOCK", out);
+        }
+
+        @Override
+        public void visitDeclaration(AstArena.Cursor tree, List<String> out) {
+            add(tree, "DECLARATION", out);
+        }
+
+        @Override
+        public void visitFunction(AstArena.Cursor tree, List<String> out) {
+            add(tree, "FUNCTION", out);
+        }
+
+        @Override
+        public void visitIdentExpression(AstArena.Cursor tree, List<String> out) {
+            add(tree, "IDENT_EXPRESSION", out);
+        }
+
+        @Override
+        public void visitLiteral(AstArena.Cursor tree, List<String> out) {
+            add(tree, "LITERAL " + tree.literalText() + " " + tree.literalValue(), out);
+        }
+
+        @Override
+        public void visitLValueIdent(AstArena.Cursor tree, List<String> out) {
+            add(tree, "LVALUE_IDENT", out);
+        }
+
+        @Override
+        public void visitName(AstArena.Cursor tree, List<String> out) {
+            add(tree, "NAME " + tree.symbol(), out);
+        }
+
+        @Override
+        public void visitNegate(AstArena.Cursor tree, List<String> out) {
+            add(tree, "NEGATE", out);
+        }
+
+        @Override
+        public void visitProgram(AstArena.Cursor tree, List<String> out) {
+            add(tree, "PROGRAM", out);
+        }
+
+        @Override
+        public void visitReturn(AstArena.Cursor tree, List<String> out) {
+            add(tree, "RETURN", out);
+        }
+
+        @Override
+        public void visitType(AstArena.Cursor tree, List<String> out) {
+            add(tree, "TYPE " + tree.arena().basicType(tree.tree()), out);
+        }
+
+        private static void add(AstArena.Cursor tree, String details, List<String> out) {
+            out.add(details + " " + tree.span());
+        }
+    }
+}